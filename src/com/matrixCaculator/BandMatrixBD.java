@@ -0,0 +1,398 @@
+package com.matrixCaculator;
+
+import com.vectorCalculation.VectorBD;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * a square matrix of big decimals whose nonzero entries are all within a band around the diagonal
+ * <p>only the diagonals of the band are stored, so an n by n matrix with lower and upper bandwidths p and q takes n(p + q + 1) entries;
+ * multiplying by a vector costs O(n(p + q)) and solving O(n·p(p + q)), instead of O(n²) and O(n³) for {@link MatrixBD}
+ * <p>diagonally dominant tridiagonal systems are solved with the Thomas algorithm, the others with a banded LU factorization with partial pivoting,
+ * which is kept until the matrix changes; divisions are rounded like {@link MatrixBD#RREF()}
+ * <p>whether the matrix is singular is decided exactly, not from the rounded pivots: by the same banded elimination modulo a prime,
+ * and only when that finds the determinant a multiple of the prime, by fraction-free elimination
+ */
+public class BandMatrixBD {
+
+    // size
+    private final int n;
+
+    // number of diagonals below and above the main one
+    private final int lower, upper;
+
+    // for the big decimal calculation, we need a math context
+    private final MathContext mc = MathContext.DECIMAL128;
+
+    // a prime below 2^31, so the product of 2 residues fits in a long
+    private static final long PRIME = Integer.MAX_VALUE;
+
+    // store with array, row by row, entry (i, j) at ab[i * (lower + upper + 1) + j - i + lower]
+    private final BigDecimal[] ab;
+
+    // the LU factorization, null until needed
+    // row i of lu covers the columns from i - lower to i + lower + upper, as the row swaps widen U
+    private BigDecimal[] lu = null;
+    private int[] piv = null;
+
+    // whether the matrix is singular, null until needed
+    private Boolean singular = null;
+
+    // constructor
+    /**create a band matrix of 0s
+     * @param n number of rows and columns
+     * @param lower number of nonzero diagonals below the main one
+     * @param upper number of nonzero diagonals above the main one
+     */
+    public BandMatrixBD(int n, int lower, int upper) {
+        if (n <= 0) throw new IllegalArgumentException("the size of the matrix must be greater than 0");
+        if (lower < 0 || upper < 0) throw new IllegalArgumentException("the bandwidths must not be negative");
+        this.n = n;
+        this.lower = Math.min(lower, n - 1);
+        this.upper = Math.min(upper, n - 1);
+        ab = new BigDecimal[n * (this.lower + this.upper + 1)];
+        Arrays.fill(ab, BigDecimal.ZERO);
+    }
+
+    /**copy the band of a square matrix, with the bandwidths found from its nonzero entries
+     * @param matrix a square matrix, not augmented
+     */
+    public BandMatrixBD(MatrixBD matrix) {
+        this(checkSquare(matrix), bandwidth(matrix, true), bandwidth(matrix, false));
+    }
+
+    // copy the band of the first ro() columns of a matrix, which may be augmented
+    BandMatrixBD(MatrixBD matrix, int lower, int upper) {
+        this(matrix.ro(), lower, upper);
+        for (int i = 0; i < n; i++) {
+            for (int j = Math.max(0, i - lower); j <= Math.min(n - 1, i + upper); j++) ab[index(i, j)] = matrix.entry(i, j);
+        }
+    }
+
+    /**create a tridiagonal matrix
+     * @param sub the diagonal below the main one, n - 1 entries
+     * @param diag the main diagonal, n entries
+     * @param sup the diagonal above the main one, n - 1 entries
+     * @return the tridiagonal matrix
+     */
+    public static BandMatrixBD tridiagonal(BigDecimal[] sub, BigDecimal[] diag, BigDecimal[] sup) {
+        int n = diag.length;
+        if (sub.length != n - 1 || sup.length != n - 1) throw new IllegalArgumentException("the diagonals above and below must have one entry less than the main one");
+        BandMatrixBD result = new BandMatrixBD(n, 1, 1);
+        for (int i = 0; i < n; i++) {
+            if (i > 0) result.ab[result.index(i, i - 1)] = sub[i - 1];
+            result.ab[result.index(i, i)] = diag[i];
+            if (i < n - 1) result.ab[result.index(i, i + 1)] = sup[i];
+        }
+        return result;
+    }
+
+    // size
+    /**
+     * @return number of rows and columns of this matrix
+     */
+    public int dim(){
+        return n;
+    }
+
+    /**
+     * @return number of diagonals below the main one
+     */
+    public int lower(){
+        return lower;
+    }
+
+    /**
+     * @return number of diagonals above the main one
+     */
+    public int upper(){
+        return upper;
+    }
+
+    // get entry
+    /**
+     * @param row the row of the entry
+     * @param column the column of the entry
+     * @return the entry at that row and column, 0 outside the band
+     */
+    public BigDecimal get(int row, int column){
+        check(row, column);
+        return inBand(row, column) ? ab[index(row, column)] : BigDecimal.ZERO;
+    }
+
+    // set entry
+    /**change one entry
+     * @param row the row of the entry
+     * @param column the column of the entry
+     * @param value the new value, which must be 0 outside the band
+     */
+    public void set(int row, int column, BigDecimal value){
+        check(row, column);
+        if (value == null) throw new NullPointerException("value cannot be null");
+        if (!inBand(row, column)) {
+            if (value.signum() != 0) throw new IllegalArgumentException("the entry at " + row + ", " + column + " is outside the band");
+            return;
+        }
+        ab[index(row, column)] = value;
+        lu = null;
+        piv = null;
+        singular = null;
+    }
+
+    // multiply by vector
+    /** multiply the matrix by a vector with dimension equal to the size of this matrix
+     * <p>the product is exact
+     * @param that the vector to multiply
+     * @return a new vector gained by multiplying the matrix and the vector
+     */
+    public VectorBD time(VectorBD that){
+        if (that.dim() != n) throw new IllegalArgumentException("the number of columns of the matrix must equal to the number of dimensions of the vector");
+        BigDecimal[] ve = that.toArray();
+        BigDecimal[] result = new BigDecimal[n];
+        for (int i = 0; i < n; i++) {
+            BigDecimal sum = BigDecimal.ZERO;
+            int row = index(i, i) - i;
+            for (int j = Math.max(0, i - lower); j <= Math.min(n - 1, i + upper); j++) sum = sum.add(ab[row + j].multiply(ve[j]));
+            result[i] = sum;
+        }
+        return new VectorBD(result);
+    }
+
+    // solve
+    /**solve this matrix times x equals b
+     * @param b the constants
+     * @return the one solution x
+     * @throws ArithmeticException if the matrix is singular
+     */
+    public VectorBD sol(VectorBD b){
+        if (b.dim() != n) throw new IllegalArgumentException("the number of dimensions of the vector must equal to the size of the matrix");
+        // the rounded pivots of a singular matrix need not be 0, so it is found exactly first
+        if (singular()) throw new ArithmeticException("the matrix is singular");
+        if (lower == 1 && upper == 1 && dominant()) return thomas(b.toArray());
+        factor();
+        BigDecimal[] x = b.toArray().clone();
+        int w = 2 * lower + upper + 1;
+
+        // apply the row swaps and L
+        for (int k = 0; k < n; k++) {
+            int p = piv[k];
+            if (p != k) {
+                BigDecimal temp = x[k];
+                x[k] = x[p];
+                x[p] = temp;
+            }
+            for (int r = k + 1; r <= Math.min(n - 1, k + lower); r++) x[r] = x[r].subtract(product(lu[r * w + k - r + lower], x[k]));
+        }
+
+        // U, whose rows reach lower + upper columns past the diagonal
+        for (int k = n - 1; k >= 0; k--) {
+            int row = k * w - k + lower;
+            BigDecimal sum = x[k];
+            for (int c = k + 1; c <= Math.min(n - 1, k + lower + upper); c++) sum = sum.subtract(product(lu[row + c], x[c]));
+            x[k] = sum.divide(lu[row + k], mc).stripTrailingZeros();
+        }
+        return new VectorBD(x);
+    }
+
+    /**
+     * @return this matrix as a new dense matrix
+     */
+    public MatrixBD toMatrixBD(){
+        BigDecimal[][] result = new BigDecimal[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) result[i][j] = inBand(i, j) ? ab[index(i, j)] : BigDecimal.ZERO;
+        }
+        return new MatrixBD(result);
+    }
+
+    // to string
+    public String toString() {
+        return toMatrixBD().toString();
+    }
+
+    // a product rounded like the forward phase of MatrixBD.RREF(), so the digits do not keep growing
+    private static BigDecimal product(BigDecimal a, BigDecimal b) {
+        return a.multiply(b).setScale(33, RoundingMode.HALF_UP);
+    }
+
+    // whether each diagonal entry outweighs the rest of its row, so the Thomas algorithm needs no pivoting
+    private boolean dominant() {
+        for (int i = 0; i < n; i++) {
+            BigDecimal off = (i > 0 ? ab[index(i, i - 1)].abs() : BigDecimal.ZERO).add(i < n - 1 ? ab[index(i, i + 1)].abs() : BigDecimal.ZERO);
+            if (ab[index(i, i)].abs().compareTo(off) < 0 || ab[index(i, i)].signum() == 0) return false;
+        }
+        return true;
+    }
+
+    // the Thomas algorithm for a tridiagonal matrix
+    private VectorBD thomas(BigDecimal[] d) {
+        BigDecimal[] c = new BigDecimal[n], x = new BigDecimal[n];
+
+        // forward sweep, c: the new upper diagonal, x: the new constants
+        BigDecimal denominator = ab[index(0, 0)];
+        if (n > 1) c[0] = ab[index(0, 1)].divide(denominator, mc);
+        x[0] = d[0].divide(denominator, mc);
+        for (int i = 1; i < n; i++) {
+            BigDecimal a = ab[index(i, i - 1)];
+            denominator = ab[index(i, i)].subtract(product(a, c[i - 1]));
+            if (denominator.signum() == 0) throw new ArithmeticException("the matrix is singular");
+            if (i < n - 1) c[i] = ab[index(i, i + 1)].divide(denominator, mc);
+            x[i] = d[i].subtract(product(a, x[i - 1])).divide(denominator, mc);
+        }
+
+        // back substitution
+        for (int i = n - 2; i >= 0; i--) x[i] = x[i].subtract(product(c[i], x[i + 1]));
+        for (int i = 0; i < n; i++) x[i] = x[i].round(mc).stripTrailingZeros();
+        return new VectorBD(x);
+    }
+
+    // the banded LU factorization with partial pivoting, if not done yet
+    private void factor() {
+        if (lu != null) return;
+        int w = 2 * lower + upper + 1;
+        BigDecimal[] f = new BigDecimal[n * w];
+        Arrays.fill(f, BigDecimal.ZERO);
+        int[] p = new int[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = Math.max(0, i - lower); j <= Math.min(n - 1, i + upper); j++) f[i * w + j - i + lower] = ab[index(i, j)];
+        }
+
+        for (int k = 0; k < n; k++) {
+            int last = Math.min(n - 1, k + lower), right = Math.min(n - 1, k + lower + upper);
+
+            // the largest entry in the column as the pivot
+            int pivot = k;
+            for (int r = k + 1; r <= last; r++) {
+                if (f[r * w + k - r + lower].abs().compareTo(f[pivot * w + k - pivot + lower].abs()) > 0) pivot = r;
+            }
+            if (f[pivot * w + k - pivot + lower].signum() == 0) throw new ArithmeticException("the matrix is singular");
+            p[k] = pivot;
+
+            // swap it up, the columns left of k are 0 in both rows
+            if (pivot != k) {
+                for (int c = k; c <= right; c++) {
+                    BigDecimal temp = f[k * w + c - k + lower];
+                    f[k * w + c - k + lower] = f[pivot * w + c - pivot + lower];
+                    f[pivot * w + c - pivot + lower] = temp;
+                }
+            }
+
+            // eliminate below, keeping the multipliers in place of the 0s
+            int rowK = k * w - k + lower;
+            for (int r = k + 1; r <= last; r++) {
+                int rowR = r * w - r + lower;
+                BigDecimal m = f[rowR + k].divide(f[rowK + k], mc).stripTrailingZeros();
+                f[rowR + k] = m;
+                if (m.signum() == 0) continue;
+                for (int c = k + 1; c <= right; c++) f[rowR + c] = f[rowR + c].subtract(product(m, f[rowK + c])).stripTrailingZeros();
+            }
+        }
+        lu = f;
+        piv = p;
+    }
+
+    // whether the determinant is 0, exactly
+    private boolean singular() {
+        if (singular == null) singular = !invertibleModPrime() && BareissBD.singular(toMatrixBD().toArray(), n);
+        return singular;
+    }
+
+    // whether the determinant is not a multiple of PRIME, which means it is not 0,
+    // by the banded elimination of factor() on the residues of the rows, each multiplied by a power of 10 making it integers
+    private boolean invertibleModPrime() {
+        int w = 2 * lower + upper + 1;
+        long[] f = new long[n * w];
+        BigInteger prime = BigInteger.valueOf(PRIME);
+        for (int i = 0; i < n; i++) {
+            int from = Math.max(0, i - lower), to = Math.min(n - 1, i + upper), scale = 0;
+            for (int j = from; j <= to; j++) scale = Math.max(scale, ab[index(i, j)].scale());
+            for (int j = from; j <= to; j++) f[i * w + j - i + lower] = ab[index(i, j)].movePointRight(scale).toBigIntegerExact().mod(prime).longValue();
+        }
+
+        for (int k = 0; k < n; k++) {
+            int last = Math.min(n - 1, k + lower), right = Math.min(n - 1, k + lower + upper);
+
+            // any entry not 0 as the pivot
+            int pivot = k;
+            while (pivot <= last && f[pivot * w + k - pivot + lower] == 0) pivot++;
+            if (pivot > last) return false;
+            if (pivot != k) {
+                for (int c = k; c <= right; c++) {
+                    long temp = f[k * w + c - k + lower];
+                    f[k * w + c - k + lower] = f[pivot * w + c - pivot + lower];
+                    f[pivot * w + c - pivot + lower] = temp;
+                }
+            }
+
+            int rowK = k * w - k + lower;
+            long inverse = BigInteger.valueOf(f[rowK + k]).modInverse(prime).longValue();
+            for (int r = k + 1; r <= last; r++) {
+                int rowR = r * w - r + lower;
+                long m = f[rowR + k] * inverse % PRIME;
+                if (m == 0) continue;
+                for (int c = k + 1; c <= right; c++) {
+                    long value = (f[rowR + c] - m * f[rowK + c] % PRIME) % PRIME;
+                    f[rowR + c] = value < 0 ? value + PRIME : value;
+                }
+            }
+        }
+        return true;
+    }
+
+    private int index(int i, int j) {
+        return i * (lower + upper + 1) + j - i + lower;
+    }
+
+    private boolean inBand(int i, int j) {
+        return j >= i - lower && j <= i + upper;
+    }
+
+    private void check(int row, int column) {
+        if (row < 0 || row >= n || column < 0 || column >= n) throw new IndexOutOfBoundsException("no entry at " + row + ", " + column);
+    }
+
+    private static MatrixBD checkSquare(MatrixBD matrix) {
+        if (matrix == null) throw new NullPointerException("matrix cannot be null");
+        if (matrix.ro() != matrix.co()) throw new IllegalArgumentException("the matrix must be square");
+        return matrix;
+    }
+
+    // the number of nonzero diagonals below (lower) or above the main one
+    static int bandwidth(MatrixBD matrix, boolean lower) {
+        int result = 0;
+        for (int i = 0; i < matrix.ro(); i++) {
+            for (int j = 0; j < matrix.co(); j++) {
+                if (matrix.entry(i, j).signum() != 0) result = Math.max(result, lower ? i - j : j - i);
+            }
+        }
+        return result;
+    }
+
+    // test client
+    public static void main(String[] args) {
+        BigDecimal two = BigDecimal.valueOf(2), minusOne = BigDecimal.valueOf(-1);
+        BandMatrixBD a = tridiagonal(new BigDecimal[]{minusOne, minusOne, minusOne}, new BigDecimal[]{two, two, two, two}, new BigDecimal[]{minusOne, minusOne, minusOne});
+        VectorBD vec = new VectorBD(new int[]{1, 0, 0, 1});
+        System.out.println(a);
+        System.out.println(a.time(vec));
+        System.out.println(a.sol(vec));
+
+        BandMatrixBD b = new BandMatrixBD(new MatrixBD(new int[][]{{1, 2, 0, 0}, {3, 0, 4, 0}, {5, 6, 7, 8}, {0, 9, 1, 2}}));
+        System.out.println(b.lower() + " " + b.upper());
+        System.out.println(b.sol(vec));
+        System.out.println(b.time(b.sol(vec)));
+
+        // singular, though the rounded pivots of it are not all 0
+        BandMatrixBD c = new BandMatrixBD(new MatrixBD(new int[][]{{0, 1, -1, 0, 0, 0, 0, 0}, {0, -1, 1, -2, 0, 0, 0, 0}, {1, 2, 1, 2, 2, 0, 0, 0},
+                {0, 2, 0, 2, -2, 0, 0, 0}, {0, 0, 2, 1, 0, 0, 1, 0}, {0, 0, 0, 0, -2, -1, 0, 2}, {0, 0, 0, 0, 2, -1, -2, -2}, {0, 0, 0, 0, 0, 0, -2, -2}}));
+        try {
+            c.sol(new VectorBD(new int[]{-1, -2, 1, 0, -2, 0, 1, -1}));
+        } catch (ArithmeticException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+}
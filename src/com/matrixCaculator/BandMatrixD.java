@@ -0,0 +1,310 @@
+package com.matrixCaculator;
+
+import com.vectorCalculation.VectorD;
+
+/**
+ * a square matrix of doubles whose nonzero entries are all within a band around the diagonal
+ * <p>only the diagonals of the band are stored, so an n by n matrix with lower and upper bandwidths p and q takes n(p + q + 1) doubles;
+ * multiplying by a vector costs O(n(p + q)) and solving O(n·p(p + q)), instead of O(n²) and O(n³) for {@link MatrixD}
+ * <p>diagonally dominant tridiagonal systems are solved with the Thomas algorithm, the others with a banded LU factorization with partial pivoting,
+ * which is kept until the matrix changes
+ */
+public class BandMatrixD {
+
+    // size
+    private final int n;
+
+    // number of diagonals below and above the main one
+    private final int lower, upper;
+
+    // store with array, row by row, entry (i, j) at ab[i * (lower + upper + 1) + j - i + lower]
+    private final double[] ab;
+
+    // the LU factorization, null until needed
+    // row i of lu covers the columns from i - lower to i + lower + upper, as the row swaps widen U
+    private double[] lu = null;
+    private int[] piv = null;
+
+    // constructor
+    /**create a band matrix of 0s
+     * @param n number of rows and columns
+     * @param lower number of nonzero diagonals below the main one
+     * @param upper number of nonzero diagonals above the main one
+     */
+    public BandMatrixD(int n, int lower, int upper) {
+        if (n <= 0) throw new IllegalArgumentException("the size of the matrix must be greater than 0");
+        if (lower < 0 || upper < 0) throw new IllegalArgumentException("the bandwidths must not be negative");
+        this.n = n;
+        this.lower = Math.min(lower, n - 1);
+        this.upper = Math.min(upper, n - 1);
+        ab = new double[n * (this.lower + this.upper + 1)];
+    }
+
+    /**copy the band of a square matrix, with the bandwidths found from its nonzero entries
+     * @param matrix a square matrix, not augmented
+     */
+    public BandMatrixD(MatrixD matrix) {
+        this(checkSquare(matrix).toArray(), bandwidth(matrix.toArray(), true), bandwidth(matrix.toArray(), false));
+    }
+
+    // copy the band of the first ma.length columns of ma, which may be augmented
+    BandMatrixD(double[][] ma, int lower, int upper) {
+        this(ma.length, lower, upper);
+        for (int i = 0; i < n; i++) {
+            for (int j = Math.max(0, i - lower); j <= Math.min(n - 1, i + upper); j++) ab[index(i, j)] = ma[i][j];
+        }
+    }
+
+    /**create a tridiagonal matrix
+     * @param sub the diagonal below the main one, n - 1 entries
+     * @param diag the main diagonal, n entries
+     * @param sup the diagonal above the main one, n - 1 entries
+     * @return the tridiagonal matrix
+     */
+    public static BandMatrixD tridiagonal(double[] sub, double[] diag, double[] sup) {
+        int n = diag.length;
+        if (sub.length != n - 1 || sup.length != n - 1) throw new IllegalArgumentException("the diagonals above and below must have one entry less than the main one");
+        BandMatrixD result = new BandMatrixD(n, 1, 1);
+        for (int i = 0; i < n; i++) {
+            if (i > 0) result.ab[result.index(i, i - 1)] = sub[i - 1];
+            result.ab[result.index(i, i)] = diag[i];
+            if (i < n - 1) result.ab[result.index(i, i + 1)] = sup[i];
+        }
+        return result;
+    }
+
+    // size
+    /**
+     * @return number of rows and columns of this matrix
+     */
+    public int dim(){
+        return n;
+    }
+
+    /**
+     * @return number of diagonals below the main one
+     */
+    public int lower(){
+        return lower;
+    }
+
+    /**
+     * @return number of diagonals above the main one
+     */
+    public int upper(){
+        return upper;
+    }
+
+    // get entry
+    /**
+     * @param row the row of the entry
+     * @param column the column of the entry
+     * @return the entry at that row and column, 0 outside the band
+     */
+    public double get(int row, int column){
+        check(row, column);
+        return inBand(row, column) ? ab[index(row, column)] : 0;
+    }
+
+    // set entry
+    /**change one entry
+     * @param row the row of the entry
+     * @param column the column of the entry
+     * @param value the new value, which must be 0 outside the band
+     */
+    public void set(int row, int column, double value){
+        check(row, column);
+        if (!inBand(row, column)) {
+            if (value != 0) throw new IllegalArgumentException("the entry at " + row + ", " + column + " is outside the band");
+            return;
+        }
+        ab[index(row, column)] = value;
+        lu = null;
+        piv = null;
+    }
+
+    // multiply by vector
+    /** multiply the matrix by a vector with dimension equal to the size of this matrix
+     * @param that the vector to multiply
+     * @return a new vector gained by multiplying the matrix and the vector
+     */
+    public VectorD time(VectorD that){
+        if (that.dim() != n) throw new IllegalArgumentException("the number of columns of the matrix must equal to the number of dimensions of the vector");
+        double[] ve = that.toArray();
+        double[] result = new double[n];
+        for (int i = 0; i < n; i++) {
+            double sum = 0;
+            int row = index(i, i) - i;
+            for (int j = Math.max(0, i - lower); j <= Math.min(n - 1, i + upper); j++) sum += ab[row + j] * ve[j];
+            result[i] = sum;
+        }
+        return new VectorD(result);
+    }
+
+    // solve
+    /**solve this matrix times x equals b
+     * @param b the constants
+     * @return the one solution x
+     * @throws ArithmeticException if the matrix is singular
+     */
+    public VectorD sol(VectorD b){
+        if (b.dim() != n) throw new IllegalArgumentException("the number of dimensions of the vector must equal to the size of the matrix");
+        if (lower == 1 && upper == 1 && dominant()) return thomas(b.toArray());
+        factor();
+        double[] x = b.toArray().clone();
+        int w = 2 * lower + upper + 1;
+
+        // apply the row swaps and L
+        for (int k = 0; k < n; k++) {
+            int p = piv[k];
+            if (p != k) {
+                double temp = x[k];
+                x[k] = x[p];
+                x[p] = temp;
+            }
+            for (int r = k + 1; r <= Math.min(n - 1, k + lower); r++) x[r] -= lu[r * w + k - r + lower] * x[k];
+        }
+
+        // U, whose rows reach lower + upper columns past the diagonal
+        for (int k = n - 1; k >= 0; k--) {
+            int row = k * w - k + lower;
+            double sum = x[k];
+            for (int c = k + 1; c <= Math.min(n - 1, k + lower + upper); c++) sum -= lu[row + c] * x[c];
+            x[k] = sum / lu[row + k];
+        }
+        return new VectorD(x);
+    }
+
+    /**
+     * @return this matrix as a new dense matrix
+     */
+    public MatrixD toMatrixD(){
+        double[][] result = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = Math.max(0, i - lower); j <= Math.min(n - 1, i + upper); j++) result[i][j] = ab[index(i, j)];
+        }
+        return new MatrixD(result);
+    }
+
+    // to string
+    public String toString() {
+        return toMatrixD().toString();
+    }
+
+    // whether each diagonal entry outweighs the rest of its row, so the Thomas algorithm needs no pivoting
+    private boolean dominant() {
+        for (int i = 0; i < n; i++) {
+            double off = (i > 0 ? Math.abs(ab[index(i, i - 1)]) : 0) + (i < n - 1 ? Math.abs(ab[index(i, i + 1)]) : 0);
+            if (Math.abs(ab[index(i, i)]) < off || ab[index(i, i)] == 0) return false;
+        }
+        return true;
+    }
+
+    // the Thomas algorithm for a tridiagonal matrix
+    private VectorD thomas(double[] d) {
+        double[] c = new double[n], x = new double[n];
+
+        // forward sweep, c: the new upper diagonal, x: the new constants
+        double denominator = ab[index(0, 0)];
+        if (n > 1) c[0] = ab[index(0, 1)] / denominator;
+        x[0] = d[0] / denominator;
+        for (int i = 1; i < n; i++) {
+            double a = ab[index(i, i - 1)];
+            denominator = ab[index(i, i)] - a * c[i - 1];
+            if (denominator == 0) throw new ArithmeticException("the matrix is singular");
+            if (i < n - 1) c[i] = ab[index(i, i + 1)] / denominator;
+            x[i] = (d[i] - a * x[i - 1]) / denominator;
+        }
+
+        // back substitution
+        for (int i = n - 2; i >= 0; i--) x[i] -= c[i] * x[i + 1];
+        return new VectorD(x);
+    }
+
+    // the banded LU factorization with partial pivoting, if not done yet
+    private void factor() {
+        if (lu != null) return;
+        int w = 2 * lower + upper + 1;
+        double[] f = new double[n * w];
+        int[] p = new int[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = Math.max(0, i - lower); j <= Math.min(n - 1, i + upper); j++) f[i * w + j - i + lower] = ab[index(i, j)];
+        }
+
+        for (int k = 0; k < n; k++) {
+            int last = Math.min(n - 1, k + lower), right = Math.min(n - 1, k + lower + upper);
+
+            // the largest entry in the column as the pivot
+            int pivot = k;
+            for (int r = k + 1; r <= last; r++) {
+                if (Math.abs(f[r * w + k - r + lower]) > Math.abs(f[pivot * w + k - pivot + lower])) pivot = r;
+            }
+            if (f[pivot * w + k - pivot + lower] == 0) throw new ArithmeticException("the matrix is singular");
+            p[k] = pivot;
+
+            // swap it up, the columns left of k are 0 in both rows
+            if (pivot != k) {
+                for (int c = k; c <= right; c++) {
+                    double temp = f[k * w + c - k + lower];
+                    f[k * w + c - k + lower] = f[pivot * w + c - pivot + lower];
+                    f[pivot * w + c - pivot + lower] = temp;
+                }
+            }
+
+            // eliminate below, keeping the multipliers in place of the 0s
+            int rowK = k * w - k + lower;
+            for (int r = k + 1; r <= last; r++) {
+                int rowR = r * w - r + lower;
+                double m = f[rowR + k] / f[rowK + k];
+                f[rowR + k] = m;
+                if (m == 0) continue;
+                for (int c = k + 1; c <= right; c++) f[rowR + c] -= m * f[rowK + c];
+            }
+        }
+        lu = f;
+        piv = p;
+    }
+
+    private int index(int i, int j) {
+        return i * (lower + upper + 1) + j - i + lower;
+    }
+
+    private boolean inBand(int i, int j) {
+        return j >= i - lower && j <= i + upper;
+    }
+
+    private void check(int row, int column) {
+        if (row < 0 || row >= n || column < 0 || column >= n) throw new IndexOutOfBoundsException("no entry at " + row + ", " + column);
+    }
+
+    private static MatrixD checkSquare(MatrixD matrix) {
+        if (matrix == null) throw new NullPointerException("matrix cannot be null");
+        if (matrix.ro() != matrix.co()) throw new IllegalArgumentException("the matrix must be square");
+        return matrix;
+    }
+
+    // the number of nonzero diagonals below (lower) or above the main one
+    static int bandwidth(double[][] ma, boolean lower) {
+        int result = 0;
+        for (int i = 0; i < ma.length; i++) {
+            for (int j = 0; j < ma.length; j++) {
+                if (ma[i][j] != 0) result = Math.max(result, lower ? i - j : j - i);
+            }
+        }
+        return result;
+    }
+
+    // test client
+    public static void main(String[] args) {
+        BandMatrixD a = tridiagonal(new double[]{-1, -1, -1}, new double[]{2, 2, 2, 2}, new double[]{-1, -1, -1});
+        VectorD vec = new VectorD(new double[]{1, 0, 0, 1});
+        System.out.println(a);
+        System.out.println(a.time(vec));
+        System.out.println(a.sol(vec));
+
+        BandMatrixD b = new BandMatrixD(new MatrixD(new double[][]{{1, 2, 0, 0}, {3, 0, 4, 0}, {5, 6, 7, 8}, {0, 9, 1, 2}}));
+        System.out.println(b.lower() + " " + b.upper());
+        System.out.println(b.sol(vec));
+        System.out.println(b.time(b.sol(vec)));
+    }
+}
@@ -0,0 +1,95 @@
+package com.matrixCaculator;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+/**
+ * the exact path for square systems of integers, by fraction-free (Bareiss) elimination
+ * <p>each step replaces a[i][j] by (a[k][k] a[i][j] - a[i][k] a[k][j]) / (the previous pivot), which always divides exactly,
+ * so every entry stays an integer no bigger than a minor of the matrix, and the last pivot is the determinant;
+ * the backward phase finds the determinant times each unknown, also integers, so each unknown is one division, the only rounding
+ */
+final class BareissBD {
+
+    private BareissBD() {
+    }
+
+    /**solve a square augmented system of integers
+     * @param ma n rows and n + 1 columns of integers, the last one the constants
+     * @param mc the math context of the final divisions
+     * @return the one solution, or null if the coefficients are singular
+     */
+    static BigDecimal[] solve(BigDecimal[][] ma, MathContext mc) {
+        int n = ma.length;
+        BigInteger[][] a = new BigInteger[n][n + 1];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= n; j++) a[i][j] = ma[i][j].toBigIntegerExact();
+        }
+
+        BigInteger determinant = forward(a, n);
+        if (determinant == null) return null;
+
+        // backward phase on y = determinant * x, which are integers by Cramer's rule, so each division is exact
+        BigInteger[] y = new BigInteger[n];
+        for (int i = n - 1; i >= 0; i--) {
+            BigInteger sum = determinant.multiply(a[i][n]);
+            for (int j = i + 1; j < n; j++) {
+                if (a[i][j].signum() != 0) sum = sum.subtract(a[i][j].multiply(y[j]));
+            }
+            y[i] = sum.divide(a[i][i]);
+        }
+
+        BigDecimal denominator = new BigDecimal(determinant);
+        BigDecimal[] x = new BigDecimal[n];
+        for (int i = 0; i < n; i++) x[i] = CompactBD.canonical(new BigDecimal(y[i]).divide(denominator, mc).stripTrailingZeros());
+        return x;
+    }
+
+    /**whether square coefficients of decimals are singular, exactly
+     * <p>each row is first multiplied by a power of 10 making it integers, which does not change whether the matrix is singular
+     * @param ma at least n rows and n columns, the first n of each taken
+     * @param n the size of the coefficients
+     * @return whether the determinant is 0
+     */
+    static boolean singular(BigDecimal[][] ma, int n) {
+        BigInteger[][] a = new BigInteger[n][n + 1];
+        for (int i = 0; i < n; i++) {
+            int scale = 0;
+            for (int j = 0; j < n; j++) scale = Math.max(scale, ma[i][j].scale());
+            for (int j = 0; j < n; j++) a[i][j] = ma[i][j].movePointRight(scale).toBigIntegerExact();
+            a[i][n] = BigInteger.ZERO;
+        }
+        return forward(a, n) == null;
+    }
+
+    // forward phase, to an upper triangular matrix whose last pivot is the determinant, up to sign
+    // return the determinant, or null if the coefficients are singular
+    private static BigInteger forward(BigInteger[][] a, int n) {
+        BigInteger previous = BigInteger.ONE;
+        for (int k = 0; k < n; k++) {
+            // the shortest nonzero entry as the pivot, so the entries grow the least
+            int pivot = -1;
+            for (int r = k; r < n; r++) {
+                if (a[r][k].signum() != 0 && (pivot < 0 || a[r][k].bitLength() < a[pivot][k].bitLength())) pivot = r;
+            }
+            if (pivot < 0) return null;
+            BigInteger[] temp = a[k];
+            a[k] = a[pivot];
+            a[pivot] = temp;
+
+            BigInteger akk = a[k][k];
+            for (int i = k + 1; i < n; i++) {
+                BigInteger aik = a[i][k];
+                for (int j = k + 1; j <= n; j++) {
+                    BigInteger value = akk.multiply(a[i][j]);
+                    if (aik.signum() != 0) value = value.subtract(aik.multiply(a[k][j]));
+                    a[i][j] = value.divide(previous);
+                }
+                a[i][k] = BigInteger.ZERO;
+            }
+            previous = akk;
+        }
+        return previous;
+    }
+}
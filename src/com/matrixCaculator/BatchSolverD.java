@@ -0,0 +1,275 @@
+package com.matrixCaculator;
+
+import com.vectorCalculation.VectorD;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * many independent augmented systems of doubles of the same small size, solved together
+ * <p>the systems are stored as structure of arrays: entry (i, j) of every system is contiguous,
+ * at a[(i * (n + 1) + j) * count + system], so each step of the elimination is one loop over the systems,
+ * which the JIT can turn into SIMD instructions
+ * <p>each system is solved by Gaussian elimination with partial pivoting; a system with a column of 0s
+ * below its diagonal is flagged singular and has no solution, without stopping the others
+ * <p>the systems are split in chunks solved in parallel
+ */
+public class BatchSolverD {
+
+    // number of systems in a chunk, small enough for its copy to stay in the cache
+    private static final int CHUNK = 512;
+
+    // size of each system, n rows and n + 1 columns
+    // number of systems
+    private final int n, count;
+
+    // the systems, entry (i, j) of system s at a[(i * (n + 1) + j) * count + s]
+    private final double[] a;
+
+    // the solutions, unknown i of system s at x[i * count + s], null until solved
+    private double[] x = null;
+
+    // whether each system is singular
+    private final boolean[] singular;
+
+    // constructor
+    /**create a batch of systems of 0s
+     * @param n number of unknowns of each system, which has n rows and n + 1 columns
+     * @param count number of systems
+     */
+    public BatchSolverD(int n, int count) {
+        if (n <= 0) throw new IllegalArgumentException("the number of unknowns must be greater than 0");
+        if (count <= 0) throw new IllegalArgumentException("the number of systems must be greater than 0");
+        if ((long) n * (n + 1) * count > Integer.MAX_VALUE) throw new IllegalArgumentException("the batch is too large for one array");
+        this.n = n;
+        this.count = count;
+        a = new double[n * (n + 1) * count];
+        singular = new boolean[count];
+    }
+
+    /**
+     * @return number of unknowns of each system
+     */
+    public int dim(){
+        return n;
+    }
+
+    /**
+     * @return number of systems
+     */
+    public int count(){
+        return count;
+    }
+
+    /**give out the systems as they are stored, to fill them without a call per entry
+     * <p>entry (i, j) of system s is at [(i * (dim() + 1) + j) * count() + s]; changes take effect on the next solve
+     * @return the array of all the systems
+     */
+    public double[] toArray(){
+        x = null;
+        return a;
+    }
+
+    // get and set entries
+    /**
+     * @param system the index of the system
+     * @param row the row of the entry
+     * @param column the column of the entry, dim() for the constant
+     * @return the entry of that system at that row and column
+     */
+    public double get(int system, int row, int column){
+        return a[index(system, row, column)];
+    }
+
+    /**change one entry of one system
+     * @param system the index of the system
+     * @param row the row of the entry
+     * @param column the column of the entry, dim() for the constant
+     * @param value the new value
+     */
+    public void set(int system, int row, int column, double value){
+        a[index(system, row, column)] = value;
+        x = null;
+    }
+
+    /**copy an augmented matrix into one system
+     * @param system the index of the system
+     * @param matrix a matrix of dim() rows and dim() + 1 columns
+     */
+    public void set(int system, MatrixD matrix){
+        if (matrix == null) throw new NullPointerException("matrix cannot be null");
+        if (matrix.ro() != n || matrix.co() != n + 1) throw new IllegalArgumentException("the matrix must have " + n + " rows and " + (n + 1) + " columns");
+        if (system < 0 || system >= count) throw new IndexOutOfBoundsException("no system at " + system);
+        double[][] ma = matrix.toArray();
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= n; j++) a[(i * (n + 1) + j) * count + system] = ma[i][j];
+        }
+        x = null;
+    }
+
+    // solve
+    /**solve all the systems, if not done since the last change
+     */
+    public void solve(){
+        if (x != null) return;
+        double[] result = new double[n * count];
+        if (count > CHUNK) ForkJoinPool.commonPool().invoke(new Chunks(0, count, result));
+        else solve(0, count, result);
+        x = result;
+    }
+
+    /**
+     * @param system the index of the system
+     * @return whether the system has no single solution
+     */
+    public boolean singular(int system){
+        if (system < 0 || system >= count) throw new IndexOutOfBoundsException("no system at " + system);
+        solve();
+        return singular[system];
+    }
+
+    /**
+     * @return number of systems with no single solution
+     */
+    public int singularCount(){
+        solve();
+        int result = 0;
+        for (boolean flag : singular) if (flag) result++;
+        return result;
+    }
+
+    /**the solution of one system
+     * @param system the index of the system
+     * @return the one solution of the system, null if it is singular
+     */
+    public VectorD sol(int system){
+        if (singular(system)) return null;
+        double[] result = new double[n];
+        for (int i = 0; i < n; i++) result[i] = x[i * count + system];
+        return new VectorD(result);
+    }
+
+    /**give out all the solutions as they are stored, unknown i of system s at [i * count() + s]
+     * <p>the entries of singular systems are not numbers
+     * @return the array of all the solutions
+     */
+    public double[] solutions(){
+        solve();
+        return x;
+    }
+
+    private int index(int system, int row, int column) {
+        if (system < 0 || system >= count) throw new IndexOutOfBoundsException("no system at " + system);
+        if (row < 0 || row >= n || column < 0 || column > n) throw new IndexOutOfBoundsException("no entry at " + row + ", " + column);
+        return (row * (n + 1) + column) * count + system;
+    }
+
+    // solve the systems from s0 to s1 on a copy laid out the same way, entry (i, j) of system s0 + t at w[(i * (n + 1) + j) * m + t]
+    private void solve(int s0, int s1, double[] result) {
+        int m = s1 - s0, co = n + 1;
+        double[] w = new double[n * co * m];
+        for (int e = 0; e < n * co; e++) System.arraycopy(a, e * count + s0, w, e * m, m);
+
+        int[] pivot = new int[m];
+        double[] best = new double[m], factor = new double[m], multiplier = new double[m];
+        boolean[] flag = new boolean[m];
+
+        for (int k = 0; k < n; k++) {
+            // the largest entry in column k, from row k down, as the pivot of each system
+            int kk = (k * co + k) * m;
+            for (int t = 0; t < m; t++) {
+                pivot[t] = k;
+                best[t] = Math.abs(w[kk + t]);
+            }
+            for (int r = k + 1; r < n; r++) {
+                int rk = (r * co + k) * m;
+                for (int t = 0; t < m; t++) {
+                    double value = Math.abs(w[rk + t]);
+                    if (value > best[t]) {
+                        best[t] = value;
+                        pivot[t] = r;
+                    }
+                }
+            }
+
+            // swap each pivot up, only visiting the rows some system pivots on
+            for (int r = k + 1; r < n; r++) {
+                boolean any = false;
+                for (int t = 0; t < m; t++) any |= pivot[t] == r;
+                if (!any) continue;
+                for (int j = k; j < co; j++) {
+                    int top = (k * co + j) * m, row = (r * co + j) * m;
+                    for (int t = 0; t < m; t++) {
+                        if (pivot[t] != r) continue;
+                        double temp = w[top + t];
+                        w[top + t] = w[row + t];
+                        w[row + t] = temp;
+                    }
+                }
+            }
+
+            // a system with no pivot is singular, and its rows are left as they are
+            for (int t = 0; t < m; t++) {
+                if (best[t] == 0) flag[t] = true;
+                factor[t] = best[t] == 0 ? 0 : 1 / w[kk + t];
+            }
+
+            // eliminate below
+            for (int r = k + 1; r < n; r++) {
+                int rk = (r * co + k) * m;
+                for (int t = 0; t < m; t++) multiplier[t] = w[rk + t] * factor[t];
+                for (int j = k + 1; j < co; j++) {
+                    int top = (k * co + j) * m, row = (r * co + j) * m;
+                    for (int t = 0; t < m; t++) w[row + t] -= multiplier[t] * w[top + t];
+                }
+            }
+        }
+
+        // back substitution, unknown i of system s0 + t into result[i * count + s0 + t]
+        double[] sum = best;
+        for (int i = n - 1; i >= 0; i--) {
+            System.arraycopy(w, (i * co + n) * m, sum, 0, m);
+            for (int j = i + 1; j < n; j++) {
+                int ij = (i * co + j) * m, xj = j * count + s0;
+                for (int t = 0; t < m; t++) sum[t] -= w[ij + t] * result[xj + t];
+            }
+            int ii = (i * co + i) * m, xi = i * count + s0;
+            for (int t = 0; t < m; t++) result[xi + t] = flag[t] ? Double.NaN : sum[t] / w[ii + t];
+        }
+        System.arraycopy(flag, 0, singular, s0, m);
+    }
+
+    // systems from s0 to s1, split in halves until a chunk
+    private final class Chunks extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int s0, s1;
+        private final double[] result;
+
+        Chunks(int s0, int s1, double[] result) {
+            this.s0 = s0;
+            this.s1 = s1;
+            this.result = result;
+        }
+
+        @Override
+        protected void compute() {
+            if (s1 - s0 <= CHUNK) {
+                solve(s0, s1, result);
+                return;
+            }
+            int middle = (s0 + s1) >>> 1;
+            invokeAll(new Chunks(s0, middle, result), new Chunks(middle, s1, result));
+        }
+    }
+
+    // test client
+    public static void main(String[] args) {
+        BatchSolverD batch = new BatchSolverD(3, 3);
+        batch.set(0, new MatrixD(new double[][]{{2, 1, -1, 8}, {-3, -1, 2, -11}, {-2, 1, 2, -3}}));
+        batch.set(1, new MatrixD(new double[][]{{0, 1, 2, 3}, {1, 0, 0, 1}, {0, 0, 1, 1}}));
+        batch.set(2, new MatrixD(new double[][]{{1, 2, 3, 1}, {2, 4, 6, 2}, {1, 1, 1, 1}}));
+        for (int s = 0; s < batch.count(); s++) System.out.println(batch.sol(s));
+        System.out.println(batch.singularCount());
+    }
+}
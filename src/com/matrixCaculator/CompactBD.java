@@ -0,0 +1,134 @@
+package com.matrixCaculator;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * a compact, read-only 2D array of big decimals, for matrices that are mostly 0s and small integers
+ * <p>0s are only a bit in a bitmap; the other entries are packed row by row in one array,
+ * found by counting the bits before them, and small integers are shared instances from {@link #canonical(BigDecimal)}
+ * <p>0s are kept as 0 whatever their scale, so 0.00 comes back as 0
+ */
+final class CompactBD {
+
+    // integers from -SMALL to SMALL are shared
+    private static final int SMALL = 256;
+    private static final BigDecimal[] SMALL_VALUES = new BigDecimal[2 * SMALL + 1];
+
+    // rough size of a big decimal object and of an array slot, in bytes
+    private static final long DECIMAL_WEIGHT = 40, SLOT_WEIGHT = 8;
+
+    static {
+        for (int i = -SMALL; i <= SMALL; i++) SMALL_VALUES[i + SMALL] = BigDecimal.valueOf(i);
+    }
+
+    // row and column
+    final int ro, co;
+
+    // bit (i * co + j) is set when entry (i, j) is not 0
+    private final long[] bits;
+
+    // before[w]: number of nonzero entries in the words before w
+    private final int[] before;
+
+    // the nonzero entries, row by row
+    private final BigDecimal[] values;
+
+    /**pack a 2D array
+     * @param array the entries, which are not changed
+     */
+    CompactBD(BigDecimal[][] array) {
+        ro = array.length;
+        co = array[0].length;
+        long size = (long) ro * co;
+        bits = new long[(int) ((size + 63) >>> 6)];
+        before = new int[bits.length];
+
+        int count = 0;
+        for (int i = 0; i < ro; i++) {
+            for (int j = 0; j < co; j++) {
+                if (array[i][j].signum() == 0) continue;
+                long index = (long) i * co + j;
+                bits[(int) (index >>> 6)] |= 1L << index;
+                count++;
+            }
+        }
+
+        values = new BigDecimal[count];
+        count = 0;
+        for (int w = 0; w < bits.length; w++) {
+            before[w] = count;
+            for (long word = bits[w]; word != 0; word &= word - 1) {
+                long index = ((long) w << 6) + Long.numberOfTrailingZeros(word);
+                values[count++] = canonical(array[(int) (index / co)][(int) (index % co)]);
+            }
+        }
+    }
+
+    /**
+     * @param i the row
+     * @param j the column
+     * @return the entry (i, j)
+     */
+    BigDecimal get(int i, int j) {
+        long index = (long) i * co + j;
+        int w = (int) (index >>> 6);
+        long mask = 1L << index;
+        if ((bits[w] & mask) == 0) return BigDecimal.ZERO;
+        return values[before[w] + Long.bitCount(bits[w] & (mask - 1))];
+    }
+
+    /**
+     * @return number of nonzero entries
+     */
+    int nonZeros() {
+        return values.length;
+    }
+
+    /**
+     * @return a new 2D array of the entries, with shared 0s
+     */
+    BigDecimal[][] expand() {
+        BigDecimal[][] result = new BigDecimal[ro][co];
+        for (BigDecimal[] row : result) Arrays.fill(row, BigDecimal.ZERO);
+        int count = 0;
+        for (int w = 0; w < bits.length; w++) {
+            for (long word = bits[w]; word != 0; word &= word - 1) {
+                long index = ((long) w << 6) + Long.numberOfTrailingZeros(word);
+                result[(int) (index / co)][(int) (index % co)] = values[count++];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return an estimate of the memory held, in bytes, not counting shared values
+     */
+    long weight() {
+        long result = 8L * bits.length + 4L * before.length + SLOT_WEIGHT * values.length;
+        for (BigDecimal value : values) {
+            if (value != canonical(value)) result += DECIMAL_WEIGHT + value.precision() * 5L / 12;
+        }
+        return result;
+    }
+
+    /**the shared instance of a value, if there is one
+     * <p>integers from -256 to 256 written without a fraction part are shared
+     * @param value the value
+     * @return the shared instance equal to value, including the scale, or value itself
+     */
+    static BigDecimal canonical(BigDecimal value) {
+        if (value.scale() != 0 || value.precision() > 3) return value;
+        int i = value.intValue();
+        return i >= -SMALL && i <= SMALL ? SMALL_VALUES[i + SMALL] : value;
+    }
+
+    /**replace the values of a 2D array by their shared instances, in place
+     * @param array the entries
+     */
+    static void intern(BigDecimal[][] array) {
+        for (BigDecimal[] row : array) {
+            for (int j = 0; j < row.length; j++) row[j] = canonical(row[j]);
+        }
+    }
+}
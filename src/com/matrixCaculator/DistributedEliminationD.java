@@ -0,0 +1,601 @@
+package com.matrixCaculator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * the elimination of {@link MatrixD#RREF()} spread over worker processes, connected by TCP
+ * <p>the rows are dealt to the workers block-cyclically: row r goes to worker (r / block) % workers.
+ * the coordinator keeps which worker holds the row at each position, so swapping two rows moves no data;
+ * for each column, every worker offers its highest row with a nonzero entry there, the coordinator picks the highest offer
+ * as the pivot, as RREF() does, and broadcasts it, and each worker eliminates it from its own rows
+ * <p>every row goes through the same operations in the same order as in RREF(), so the result is the same to the last bit,
+ * and so are the pivots, free variables and solution of the matrix returned
+ * <p>a worker offers the next pivot as soon as it has updated the rows above it, while it goes on updating the rest,
+ * and all messages are sent by a thread of their own, so the next pivot travels while the rows are updated
+ * <p>each worker holds only its own rows, but the coordinator holds the whole matrix: the one it is given, and the result it gathers,
+ * so it needs memory for 2 ro × co doubles. the rows are written to the workers straight from the matrix, and read back straight
+ * into the result, without another copy; what the coordinator can hold bounds the size of a matrix, not what one worker can
+ * <p>if a worker fails, the connections are closed and this coordinator cannot be used again
+ */
+public class DistributedEliminationD implements Closeable {
+
+    // messages from the coordinator
+    private static final byte LOAD = 1, SCAN = 2, PIVOT = 3, ROW_REQUEST = 4, BACK = 5, GATHER = 6, END = 7;
+
+    // messages from a worker
+    private static final byte OFFER = 11, NONE = 12, ROW = 13, ROWS = 14;
+
+    // the connections to the workers
+    private final Connection[] workers;
+
+    // number of consecutive rows dealt to the same worker
+    private final int block;
+
+    // whether an elimination failed, leaving the connections in the middle of a message
+    private boolean broken = false;
+
+    // constructor
+    /**connect to running workers
+     * @param workers the addresses the workers listen on, see {@link #serve(int)}
+     * @param block number of consecutive rows dealt to the same worker, at least 1
+     * @throws IOException if a worker cannot be reached
+     */
+    public DistributedEliminationD(List<InetSocketAddress> workers, int block) throws IOException {
+        if (workers == null) throw new NullPointerException("workers cannot be null");
+        if (workers.isEmpty()) throw new IllegalArgumentException("there must be at least one worker");
+        if (block <= 0) throw new IllegalArgumentException("the block must be greater than 0");
+        this.block = block;
+        this.workers = new Connection[workers.size()];
+        try {
+            for (int w = 0; w < this.workers.length; w++) this.workers[w] = new Connection(new Socket(workers.get(w).getAddress(), workers.get(w).getPort()));
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    // reduce
+    /**reduce a matrix to reduced echelon form on the workers
+     * @param matrix the matrix to reduce, which is not changed
+     * @return a new matrix, the same as matrix.RREF(); its pivots, free variables and solution are those of matrix
+     * @throws IOException if a worker fails, or failed in an earlier call, after which the connections are closed
+     */
+    public synchronized MatrixD RREF(MatrixD matrix) throws IOException {
+        if (matrix == null) throw new NullPointerException("matrix cannot be null");
+        if (broken) throw new IOException("the connections to the workers were closed after a failure");
+        try {
+            return eliminate(matrix);
+        } catch (IOException | RuntimeException e) {
+            // the workers may be in the middle of a message, so nothing more can be read or sent on these connections
+            broken = true;
+            close();
+            throw e;
+        }
+    }
+
+    private MatrixD eliminate(MatrixD matrix) throws IOException {
+        double[][] ma = matrix.toArray();
+        int ro = matrix.ro(), co = matrix.co(), count = workers.length;
+
+        // which worker holds the row at each position, and where among its rows
+        int[] owner = new int[ro], local = new int[ro];
+        int[] held = new int[count];
+        for (int r = 0; r < ro; r++) {
+            owner[r] = r / block % count;
+            local[r] = held[owner[r]]++;
+        }
+        // each row written from the matrix as it goes out, by the thread sending to its worker
+        for (int w = 0; w < count; w++) {
+            int index = w, rows = held[w];
+            workers[w].send(out -> {
+                out.writeByte(LOAD);
+                out.writeInt(index);
+                out.writeInt(co);
+                out.writeInt(rows);
+                for (int r = 0; r < ro; r++) {
+                    if (owner[r] != index) continue;
+                    out.writeInt(r);
+                    for (int j = 0; j < co; j++) out.writeDouble(ma[r][j]);
+                }
+            });
+        }
+
+        // forward phase, one column at a time
+        // the position, worker and row of each pivot, and its column
+        List<int[]> pivots = new ArrayList<>();
+        int topR = 0, iC = 0;
+        Message scan = new Message(SCAN);
+        scan.out.writeInt(0);
+        broadcast(scan.bytes());
+        Offer[] offers = offers(co, 0);
+        while (iC < co && topR < ro) {
+            // the highest offer is the first nonzero entry from the top, the pivot RREF() takes
+            Offer best = null;
+            for (Offer offer : offers) if (offer != null && (best == null || offer.position < best.position)) best = offer;
+
+            if (best == null) {
+                // no pivot in this column, it is a free variable
+                iC++;
+                if (iC == co) break;
+                scan = new Message(SCAN);
+                scan.out.writeInt(iC);
+                broadcast(scan.bytes());
+                offers = offers(co, iC);
+                continue;
+            }
+
+            // swap it to the top
+            int tR = best.position;
+            int tempOwner = owner[tR], tempLocal = local[tR];
+            owner[tR] = owner[topR];
+            local[tR] = local[topR];
+            owner[topR] = tempOwner;
+            local[topR] = tempLocal;
+            pivots.add(new int[]{owner[topR], local[topR], iC});
+
+            Message pivot = new Message(PIVOT);
+            pivot.out.writeInt(iC);
+            pivot.out.writeInt(topR);
+            pivot.out.writeInt(tR);
+            pivot.out.writeInt(owner[topR]);
+            pivot.out.writeInt(local[topR]);
+            for (double value : best.row) pivot.out.writeDouble(value);
+            broadcast(pivot.bytes());
+            topR++;
+            iC++;
+            if (iC < co) offers = offers(co, iC);
+        }
+
+        // backward phase, each pivot from the bottom cleared from the pivot rows above it
+        if (pivots.size() > 1) {
+            int[] last = pivots.get(pivots.size() - 1);
+            Message request = new Message(ROW_REQUEST);
+            request.out.writeInt(last[1]);
+            workers[last[0]].send(request.bytes());
+            double[] row = workers[last[0]].row(co - last[2]);
+            for (int piNow = pivots.size() - 1; piNow > 0; piNow--) {
+                int[] pivot = pivots.get(piNow), above = pivots.get(piNow - 1);
+                Message back = new Message(BACK);
+                back.out.writeInt(piNow);
+                back.out.writeInt(pivot[2]);
+                back.out.writeInt(above[0]);
+                back.out.writeInt(above[1]);
+                back.out.writeInt(above[2]);
+                for (double value : row) back.out.writeDouble(value);
+                broadcast(back.bytes());
+                // the owner of the pivot above sends it as soon as it is cleared
+                if (piNow > 1) row = workers[above[0]].row(co - above[2]);
+            }
+        }
+
+        // gather the rows in their positions
+        double[][] result = new double[ro][];
+        broadcast(new Message(GATHER).bytes());
+        for (Connection worker : workers) {
+            worker.expect(ROWS);
+            int rows = worker.in.readInt();
+            for (int i = 0; i < rows; i++) {
+                int position = worker.in.readInt();
+                result[position] = worker.doubles(co);
+            }
+        }
+        return new MatrixD(result);
+    }
+
+    // the offers of all the workers for a column
+    private Offer[] offers(int co, int column) throws IOException {
+        Offer[] result = new Offer[workers.length];
+        for (int w = 0; w < workers.length; w++) {
+            Connection worker = workers[w];
+            byte type = worker.in.readByte();
+            if (type == NONE) continue;
+            if (type != OFFER) throw new IOException("unexpected message " + type + " from worker " + w);
+            int position = worker.in.readInt();
+            result[w] = new Offer(position, worker.doubles(co - column));
+        }
+        return result;
+    }
+
+    private void broadcast(byte[] message) {
+        for (Connection worker : workers) worker.send(message);
+    }
+
+    /**end the sessions with the workers, which wait for the next coordinator
+     */
+    @Override
+    public synchronized void close() {
+        for (Connection worker : workers) {
+            if (worker == null) continue;
+            if (broken) {
+                // a message may be half written, so the sockets are closed without waiting for it
+                worker.abort();
+                continue;
+            }
+            worker.send(new byte[]{END});
+            worker.close();
+        }
+    }
+
+    // a worker's row offered as a pivot, already divided by its entry in the column
+    private static final class Offer {
+        final int position;
+        final double[] row;
+
+        Offer(int position, double[] row) {
+            this.position = position;
+            this.row = row;
+        }
+    }
+
+    // a message being written
+    private static final class Message {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+
+        Message(byte type) {
+            bytes.write(type);
+        }
+
+        byte[] bytes() {
+            return bytes.toByteArray();
+        }
+    }
+
+    // what a message writes, in the thread sending it
+    private interface Writing {
+        void writeTo(DataOutputStream out) throws IOException;
+    }
+
+    // one end of a socket, reading in the calling thread and writing in a thread of its own, so a write never blocks a read
+    private static final class Connection {
+        final Socket socket;
+        final DataInputStream in;
+        final DataOutputStream out;
+        final ExecutorService sender = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "elimination-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Future<?> last = null;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            socket.setTcpNoDelay(true);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+        }
+
+        void send(byte[] message) {
+            send(out -> out.write(message));
+        }
+
+        // a message written as it is sent, for one too large to be built first
+        void send(Writing message) {
+            last = sender.submit(() -> {
+                try {
+                    message.writeTo(out);
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+
+        void expect(byte type) throws IOException {
+            byte actual = in.readByte();
+            if (actual != type) throw new IOException("expected message " + type + " but got " + actual);
+        }
+
+        double[] row(int length) throws IOException {
+            expect(ROW);
+            return doubles(length);
+        }
+
+        double[] doubles(int length) throws IOException {
+            double[] result = new double[length];
+            for (int i = 0; i < length; i++) result[i] = in.readDouble();
+            return result;
+        }
+
+        void close() {
+            sender.shutdown();
+            try {
+                if (last != null) last.get();
+            } catch (Exception e) {
+                // the other end is gone, nothing left to send
+            }
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // already closed
+            }
+        }
+
+        // close the socket first, so a write blocked on it fails, and drop what is still to send
+        void abort() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // already closed
+            }
+            sender.shutdownNow();
+        }
+    }
+
+    // worker
+    /**serve coordinators on a port of the loopback address, one at a time, until the process ends
+     * @param port the port, 0 for any free one, which is printed to standard output
+     * @throws IOException if the port cannot be opened
+     */
+    public static void serve(int port) throws IOException {
+        serve(port, InetAddress.getLoopbackAddress());
+    }
+
+    /**serve coordinators on a port of an address, one at a time, until the process ends
+     * @param port the port, 0 for any free one, which is printed to standard output
+     * @param address the address to listen on
+     * @throws IOException if the port cannot be opened
+     */
+    public static void serve(int port, InetAddress address) throws IOException {
+        try (ServerSocket server = new ServerSocket(port, 50, address)) {
+            System.out.println(server.getLocalPort());
+            System.out.flush();
+            while (!Thread.currentThread().isInterrupted()) {
+                Socket socket = server.accept();
+                Connection coordinator = null;
+                try {
+                    coordinator = new Connection(socket);
+                    new Session(coordinator).run();
+                } catch (IOException | UncheckedIOException e) {
+                    // the coordinator went away, reset the connection or broke the protocol, wait for the next one
+                } finally {
+                    if (coordinator != null) coordinator.close();
+                    else socket.close();
+                }
+            }
+        }
+    }
+
+    // the rows of one worker for one coordinator
+    private static final class Session {
+        final Connection coordinator;
+
+        // the index of this worker, and the number of columns
+        int index, co;
+
+        // the rows held, their positions, and their pivot numbers, -1 while they are not pivots
+        double[][] rows = new double[0][];
+        int[] position = new int[0], pivot = new int[0];
+
+        Session(Connection coordinator) {
+            this.coordinator = coordinator;
+        }
+
+        void run() throws IOException {
+            DataInputStream in = coordinator.in;
+            while (true) {
+                byte type = in.readByte();
+                switch (type) {
+                    case LOAD: load(in); break;
+                    case SCAN: offer(in.readInt(), active()); break;
+                    case PIVOT: pivot(in); break;
+                    case ROW_REQUEST: sendRow(in.readInt()); break;
+                    case BACK: back(in); break;
+                    case GATHER: gather(); break;
+                    case END: return;
+                    default: throw new IOException("unexpected message " + type);
+                }
+            }
+        }
+
+        void load(DataInputStream in) throws IOException {
+            index = in.readInt();
+            co = in.readInt();
+            int count = in.readInt();
+            rows = new double[count][];
+            position = new int[count];
+            pivot = new int[count];
+            Arrays.fill(pivot, -1);
+            for (int l = 0; l < count; l++) {
+                position[l] = in.readInt();
+                rows[l] = coordinator.doubles(co);
+            }
+        }
+
+        // the rows that are not pivots yet, from the top
+        int[] active() {
+            int count = 0;
+            for (int p : pivot) if (p < 0) count++;
+            Integer[] order = new Integer[count];
+            count = 0;
+            for (int l = 0; l < rows.length; l++) if (pivot[l] < 0) order[count++] = l;
+            Arrays.sort(order, (a, b) -> Integer.compare(position[a], position[b]));
+            int[] result = new int[count];
+            for (int i = 0; i < count; i++) result[i] = order[i];
+            return result;
+        }
+
+        // offer the highest active row with a nonzero entry in column, without changing the rows
+        void offer(int column, int[] active) {
+            for (int l : active) {
+                if (rows[l][column] != 0) {
+                    sendOffer(l, column);
+                    return;
+                }
+            }
+            coordinator.send(new byte[]{NONE});
+        }
+
+        // the row divided by its entry in column, as RREF() makes the pivot 1
+        void sendOffer(int l, int column) {
+            Message message = new Message(OFFER);
+            try {
+                message.out.writeInt(position[l]);
+                double tempDec = rows[l][column];
+                for (int i = column; i < co; i++) message.out.writeDouble(rows[l][i] / tempDec);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            coordinator.send(message.bytes());
+        }
+
+        void pivot(DataInputStream in) throws IOException {
+            int iC = in.readInt(), topR = in.readInt(), tR = in.readInt(), owner = in.readInt(), ownerLocal = in.readInt();
+            double[] pivotRow = coordinator.doubles(co - iC);
+            boolean mine = owner == index;
+
+            // the row at the top moves to where the pivot was, and the pivot to the top, divided
+            for (int l = 0; l < rows.length; l++) {
+                if (pivot[l] < 0 && position[l] == topR && !(mine && l == ownerLocal)) position[l] = tR;
+            }
+            if (mine) {
+                position[ownerLocal] = topR;
+                pivot[ownerLocal] = topR;
+                System.arraycopy(pivotRow, 0, rows[ownerLocal], iC, co - iC);
+            }
+
+            // eliminate it from the rows below, from the top, offering the first one with a nonzero entry in the next column
+            boolean offered = iC + 1 >= co;
+            for (int l : active()) {
+                double[] row = rows[l];
+                double tempDec = row[iC];
+                if (tempDec != 0) {
+                    for (int i = iC; i < co; i++) row[i] = row[i] - pivotRow[i - iC] * tempDec;
+                }
+                if (!offered && row[iC + 1] != 0) {
+                    sendOffer(l, iC + 1);
+                    offered = true;
+                }
+            }
+            if (!offered) coordinator.send(new byte[]{NONE});
+        }
+
+        void sendRow(int l) {
+            coordinator.send(rowMessage(l, pivotColumn(l)));
+        }
+
+        // clear a pivot from the pivot rows above it, the one just above first, as the coordinator waits for it
+        void back(DataInputStream in) throws IOException {
+            int piNow = in.readInt(), pC = in.readInt(), aboveOwner = in.readInt(), aboveLocal = in.readInt(), aboveColumn = in.readInt();
+            double[] pivotRow = coordinator.doubles(co - pC);
+            boolean mine = aboveOwner == index;
+            if (mine) {
+                clear(aboveLocal, pC, pivotRow);
+                if (piNow > 1) coordinator.send(rowMessage(aboveLocal, aboveColumn));
+            }
+            for (int l = 0; l < rows.length; l++) {
+                if (pivot[l] >= 0 && pivot[l] < piNow && !(mine && l == aboveLocal)) clear(l, pC, pivotRow);
+            }
+        }
+
+        void clear(int l, int pC, double[] pivotRow) {
+            double[] row = rows[l];
+            double tempDec = row[pC];
+            if (tempDec == 0) return;
+            for (int i = pC; i < co; i++) row[i] = row[i] - pivotRow[i - pC] * tempDec;
+        }
+
+        // the column of the pivot of row l, the first nonzero entry
+        int pivotColumn(int l) {
+            int column = 0;
+            while (rows[l][column] == 0) column++;
+            return column;
+        }
+
+        byte[] rowMessage(int l, int column) {
+            Message message = new Message(ROW);
+            try {
+                for (int i = column; i < co; i++) message.out.writeDouble(rows[l][i]);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return message.bytes();
+        }
+
+        // each row written as it goes out, rows and position being replaced, not changed, by the next load
+        void gather() {
+            double[][] rows = this.rows;
+            int[] position = this.position;
+            int co = this.co;
+            coordinator.send(out -> {
+                out.writeByte(ROWS);
+                out.writeInt(rows.length);
+                for (int l = 0; l < rows.length; l++) {
+                    out.writeInt(position[l]);
+                    for (int j = 0; j < co; j++) out.writeDouble(rows[l][j]);
+                }
+            });
+        }
+    }
+
+    // test client
+    /**run a worker, or a test with several worker processes on this machine
+     * @param args {@code worker port} to serve on a port of the loopback address,
+     *             or {@code local workers rows columns} to start that many worker processes and compare with {@link MatrixD#RREF()}
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && args[0].equals("worker")) {
+            serve(Integer.parseInt(args[1]));
+            return;
+        }
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int ro = args.length > 2 ? Integer.parseInt(args[2]) : 200, co = args.length > 3 ? Integer.parseInt(args[3]) : ro + 1;
+
+        // start the workers, each printing its port first
+        List<Process> processes = new ArrayList<>();
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        try {
+            for (int w = 0; w < count; w++) {
+                Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), DistributedEliminationD.class.getName(), "worker", "0")
+                        .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+                processes.add(process);
+                BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+                addresses.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(out.readLine().trim())));
+            }
+
+            // a random matrix with some dependent rows, so there are free variables
+            Random random = new Random(1);
+            double[][] ma = new double[ro][co];
+            for (int i = 0; i < ro; i++) {
+                for (int j = 0; j < co; j++) ma[i][j] = i % 7 == 6 ? ma[i - 1][j] * 2 - ma[i - 2][j] : random.nextInt(19) - 9;
+            }
+            MatrixD matrix = new MatrixD(ma);
+
+            long start = System.nanoTime();
+            MatrixD expected = new MatrixD(ma).RREF();
+            System.out.println("RREF(): " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            try (DistributedEliminationD elimination = new DistributedEliminationD(addresses, 4)) {
+                start = System.nanoTime();
+                MatrixD actual = elimination.RREF(matrix);
+                System.out.println(count + " workers: " + (System.nanoTime() - start) / 1_000_000 + " ms");
+                System.out.println("same: " + Arrays.deepEquals(expected.toArray(), actual.toArray()));
+                System.out.println("free variables: " + Arrays.toString(actual.freeVar()));
+            }
+        } finally {
+            for (Process process : processes) process.destroy();
+        }
+    }
+}
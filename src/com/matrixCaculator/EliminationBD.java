@@ -0,0 +1,225 @@
+package com.matrixCaculator;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.function.BooleanSupplier;
+
+/**
+ * the elimination behind {@link MatrixBD#RREF()}, run one pivot at a time
+ * <p>it works on its own copy of the matrix, so a matrix only takes the result once the elimination is done,
+ * and it can be stopped between two pivots
+ */
+final class EliminationBD {
+
+    // row and column
+    final int ro, co;
+
+    // for the big decimal calculation, we need a math context
+    final MathContext mc;
+
+    // the matrix being reduced
+    final BigDecimal[][] rref;
+
+    // RREF pivots
+    // free variables
+    final ArrayList<Integer> piC = new ArrayList<>(), freeC = new ArrayList<>();
+
+    // progress of the forward phase
+    // iC: the next column to search, from 0 to co
+    // topR: the highest row still considered, from 0 to ro
+    int iC = 0, topR = 0;
+
+    // progress of the backward phase
+    // piNow: the next pivot to clear above, from (pivot - 1) to 0, only meaningful once iC reaches co
+    int piNow = 0;
+
+    // assign variables
+    private final BigDecimal[] tempArray;
+
+    // counts of each phase, null when the stats are disabled
+    private final EliminationStats.Counter forwardCount, backwardCount;
+
+    /**start eliminating a copy of a matrix
+     * @param ma the matrix to reduce, which is not changed
+     * @param mc the math context to make pivots 1
+     * @return the elimination, not run yet
+     */
+    static EliminationBD start(BigDecimal[][] ma, MathContext mc) {
+        return new EliminationBD(copy(ma), mc);
+    }
+
+    /**go on eliminating an array, such as one read back from a checkpoint, without copying it
+     * <p>a new array nothing else holds can be started this way too, its progress left at the start
+     * @param rref the matrix being reduced, changed in place
+     * @param mc the math context to make pivots 1
+     * @return the elimination, whose progress is to be set by the caller
+     */
+    static EliminationBD resume(BigDecimal[][] rref, MathContext mc) {
+        return new EliminationBD(rref, mc);
+    }
+
+    // take the array over, changed in place
+    private EliminationBD(BigDecimal[][] ownedArray, MathContext mc) {
+        ro = ownedArray.length;
+        co = ownedArray[0].length;
+        this.mc = mc;
+        rref = ownedArray;
+        tempArray = new BigDecimal[co];
+
+        if (EliminationStats.enabled()) {
+            forwardCount = new EliminationStats.Counter(EliminationStats.Phase.RREF_FORWARD, ro, co);
+            backwardCount = new EliminationStats.Counter(EliminationStats.Phase.RREF_BACKWARD, ro, co);
+        } else {
+            forwardCount = null;
+            backwardCount = null;
+        }
+    }
+
+    // copy ma as rref
+    private static BigDecimal[][] copy(BigDecimal[][] ma) {
+        BigDecimal[][] result = new BigDecimal[ma.length][ma[0].length];
+        for (int i = 0; i < ma.length; i++) System.arraycopy(ma[i], 0, result[i], 0, result[i].length);
+        return result;
+    }
+
+    /**
+     * @return whether the matrix is in reduced echelon form
+     */
+    boolean done() {
+        return iC >= co && piNow <= 0;
+    }
+
+    /**run the elimination to the end, or until stop says so
+     * @param stop checked before every pivot, null to never stop
+     * @return whether the elimination is done
+     */
+    boolean run(BooleanSupplier stop) {
+        while (!done()) {
+            if (stop != null && stop.getAsBoolean()) return false;
+            step();
+        }
+        return true;
+    }
+
+    // eliminate one column in the forward phase, or clear above one pivot in the backward phase
+    void step() {
+        if (iC < co) {
+            if (forwardCount != null) forwardCount.start();
+            forward();
+            iC++;
+            if (forwardCount != null) forwardCount.stop();
+            if (iC == co) {
+                // number of pivots, the backward phase starts from the bottom one
+                piNow = piC.size() - 1;
+                if (forwardCount != null) {
+                    forwardCount.finish();
+                    // nothing to clear above, the backward phase is empty
+                    if (done()) {
+                        backwardCount.start();
+                        finishBackward();
+                    }
+                }
+            }
+        } else {
+            if (backwardCount != null) backwardCount.start();
+            backward();
+            piNow--;
+            if (backwardCount != null) finishBackward();
+        }
+    }
+
+    // pause the backward count, adding it to the stats once the phase is over
+    private void finishBackward() {
+        backwardCount.stop();
+        if (done()) backwardCount.finish();
+    }
+
+    // forward phase, for column iC
+    private void forward() {
+        BigDecimal tempDec;
+
+        // no enough rows so the rest become free variables
+        if (topR >= ro) {
+            // it is a free variable if not a constant
+            if (iC < co - 1) freeC.add(iC);
+            return;
+        }
+
+        // there are still rows to be searched
+        // tR: current row scanning
+        for (int tR = topR; tR < ro; tR++) {
+            // found nonzero entry, use it as a pivot
+            if (rref[tR][iC].compareTo(BigDecimal.ZERO) != 0) {
+                // swap it to the top
+                System.arraycopy(rref[tR], 0, tempArray, 0, co);
+                System.arraycopy(rref[topR], 0, rref[tR], 0, co);
+                System.arraycopy(tempArray, 0, rref[topR], 0, co);
+
+                if (forwardCount != null) {
+                    forwardCount.pivots++;
+                    if (tR != topR) forwardCount.rowSwaps++;
+                }
+
+                // record it to the array list
+                piC.add(iC);
+
+                // make pivot 1
+                tempDec = rref[topR][iC];
+
+                for (int i = iC; i < co; i++) {
+                    rref[topR][i] = rref[topR][i].divide(tempDec, mc).stripTrailingZeros();
+                    if (forwardCount != null) forwardCount.divide(rref[topR][i]);
+                }
+
+                // check all entries below for nonzero entries and eliminate them
+                for (int checkR = topR + 1; checkR < ro; checkR++) {
+                    // nonzero entries found
+                    if (rref[checkR][iC].compareTo(BigDecimal.ZERO) != 0) {
+                        // subtract all of them to cancel the entry
+                        tempDec = rref[checkR][iC];
+                        for (int i = iC; i < co; i++) {
+                            BigDecimal updated = rref[checkR][i].subtract(rref[topR][i].multiply(tempDec).setScale(33, RoundingMode.HALF_UP)).stripTrailingZeros();
+                            if (forwardCount != null) forwardCount.update(rref[checkR][i], updated, true);
+                            rref[checkR][i] = updated;
+                        }
+                    }
+                }
+
+                // now all is done, another top row eliminated
+                topR++;
+
+                // stop looking for entries in this column
+                return;
+            }
+        }
+
+        // no nonzero entry in this column, it is a free variable if not the last column
+        if (iC < co - 1) freeC.add(iC);
+    }
+
+    // backward phase, for pivot piNow
+    // there is no point checking for pivot 0 as nothing is above it
+    // it is also the row index for sure
+    private void backward() {
+        BigDecimal tempDec;
+        int pC = piC.get(piNow);
+
+        // check upwards one-by-one from the pivots and eliminate nonzero entries
+        // checkR: the row being checked
+        for (int checkR = piNow - 1; checkR >= 0; checkR--) {
+            // found nonzero entry
+            if (rref[checkR][pC].compareTo(BigDecimal.ZERO) != 0) {
+                tempDec = rref[checkR][pC];
+
+                // eliminate the entry, from piNow's column to the rightmost
+                for (int i = pC; i < co; i++) {
+                    BigDecimal updated = rref[checkR][i].subtract(rref[piNow][i].multiply(tempDec)).stripTrailingZeros();
+                    if (backwardCount != null) backwardCount.update(rref[checkR][i], updated, false);
+                    rref[checkR][i] = updated;
+                }
+            }
+        }
+    }
+}
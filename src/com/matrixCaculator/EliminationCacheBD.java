@@ -0,0 +1,205 @@
+package com.matrixCaculator;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * a process-wide cache of elimination results of {@link MatrixBD}, shared by all instances
+ * <p>results are keyed by the content of the matrix ({@link MatrixBD#equals(Object)} and {@link MatrixBD#hashCode()}),
+ * so solving a system seen before costs a hash and a lookup instead of a new elimination
+ * <p>a solution {@link MatrixBD#sol()} finds on a path cheaper than RREF is kept with its path, without a reduced echelon form
+ * <p>the cache is bounded by an estimate of the memory it holds, evicting the least recently used results first;
+ * a maximum weight of 0 turns it off
+ */
+public final class EliminationCacheBD {
+
+    // rough size of a big decimal object and of an array slot, in bytes
+    private static final long DECIMAL_WEIGHT = 40, SLOT_WEIGHT = 8;
+
+    // the results, least recently used first
+    private static final LinkedHashMap<MatrixBD, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // bound of the cache, and its current weight
+    private static long maxWeight = 64L << 20, weight = 0;
+
+    // metrics
+    private static long hits = 0, misses = 0, evictions = 0;
+
+    private EliminationCacheBD() {
+    }
+
+    // the results of one matrix; the arrays are never modified once shared
+    // the reduced echelon form is kept as the matrix kept it: compact for a compact matrix, otherwise dense, the other null,
+    // and both null, as well as piC and freeC, when only a solution found on another path is kept
+    static final class Entry {
+        final BigDecimal[][] rref;
+        final CompactBD compactRref;
+        final Integer[] piC, freeC;
+        // the path sol() took, null if it took RREF; sol is then null for no solution
+        MatrixStructure.Path path;
+        BigDecimal[][] sol;
+        long weight;
+
+        Entry(BigDecimal[][] rref, CompactBD compactRref, Integer[] piC, Integer[] freeC) {
+            this.rref = rref;
+            this.compactRref = compactRref;
+            this.piC = piC;
+            this.freeC = freeC;
+        }
+
+        boolean reduced() {
+            return rref != null || compactRref != null;
+        }
+    }
+
+    // look up the results of a matrix
+    static synchronized Entry get(MatrixBD matrix) {
+        if (maxWeight == 0) return null;
+        Entry entry = entries.get(matrix);
+        if (entry == null) misses++;
+        else hits++;
+        return entry;
+    }
+
+    // store the reduced echelon form of a matrix, either dense (rref) or compact (compactRref), the other null
+    // a solution kept already from another path stays with it
+    static synchronized void put(MatrixBD matrix, BigDecimal[][] rref, CompactBD compactRref, List<Integer> piC, List<Integer> freeC) {
+        if (maxWeight == 0) return;
+        Entry old = entries.get(matrix);
+        if (old != null && old.reduced()) return;
+        Entry entry = new Entry(rref, compactRref, piC.toArray(new Integer[0]), freeC.toArray(new Integer[0]));
+        entry.weight = weigh(matrix) + (compactRref != null ? compactRref.weight() : weigh(rref)) + SLOT_WEIGHT * (piC.size() + freeC.size());
+        if (old != null) {
+            entry.path = old.path;
+            entry.sol = old.sol;
+            entry.weight += old.sol != null ? weigh(old.sol) : 0;
+        }
+        store(matrix, entry, old);
+    }
+
+    // store the solution sol() found on a path other than RREF, null if there is no solution
+    static synchronized void putSol(MatrixBD matrix, MatrixStructure.Path path, BigDecimal[][] sol) {
+        if (maxWeight == 0 || entries.containsKey(matrix)) return;
+        Entry entry = new Entry(null, null, null, null);
+        entry.path = path;
+        entry.sol = sol;
+        entry.weight = weigh(matrix) + (sol != null ? weigh(sol) : 0);
+        store(matrix, entry, null);
+    }
+
+    // add an entry, in place of old unless it is null
+    private static void store(MatrixBD matrix, Entry entry, Entry old) {
+        if (entry.weight > maxWeight) return;
+        if (old != null) {
+            entries.remove(matrix);
+            weight -= old.weight;
+        }
+        // the key is a copy, so changing the array of the matrix later cannot corrupt the cache
+        // compact storage is never changed, so it is shared instead
+        CompactBD compact = matrix.compactArray();
+        entries.put(compact != null ? new MatrixBD(compact) : new MatrixBD(matrix.toArray()), entry);
+        weight += entry.weight;
+        evict();
+    }
+
+    // estimate the memory of the key of a matrix
+    private static long weigh(MatrixBD matrix) {
+        CompactBD compact = matrix.compactArray();
+        return compact != null ? compact.weight() : weigh(matrix.toArray());
+    }
+
+    // store the solution of a matrix whose reduced echelon form is stored
+    static synchronized void putSol(MatrixBD matrix, BigDecimal[][] sol) {
+        Entry entry = entries.get(matrix);
+        if (entry == null || !entry.reduced() || entry.sol != null) return;
+        entry.sol = sol;
+        long extra = weigh(sol);
+        entry.weight += extra;
+        weight += extra;
+        evict();
+    }
+
+    /**
+     * @return the bound of the estimated memory held by the cache, in bytes
+     */
+    public static synchronized long maxWeight() {
+        return maxWeight;
+    }
+
+    /**set the bound of the estimated memory held by the cache, evicting results as needed
+     * @param bytes the new bound in bytes, 0 to turn the cache off
+     */
+    public static synchronized void setMaxWeight(long bytes) {
+        if (bytes < 0) throw new IllegalArgumentException("the maximum weight must not be negative");
+        maxWeight = bytes;
+        evict();
+    }
+
+    /**
+     * @return the estimated memory held by the cache, in bytes
+     */
+    public static synchronized long weight() {
+        return weight;
+    }
+
+    /**
+     * @return number of matrices whose results are cached
+     */
+    public static synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return number of lookups that found a result
+     */
+    public static synchronized long hits() {
+        return hits;
+    }
+
+    /**
+     * @return number of lookups that found nothing
+     */
+    public static synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * @return number of results dropped to stay within the maximum weight
+     */
+    public static synchronized long evictions() {
+        return evictions;
+    }
+
+    /**drop all results and reset the metrics
+     */
+    public static synchronized void clear() {
+        entries.clear();
+        weight = 0;
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    // drop the least recently used results until the cache fits
+    private static void evict() {
+        Iterator<Map.Entry<MatrixBD, Entry>> iterator = entries.entrySet().iterator();
+        while (weight > maxWeight && iterator.hasNext()) {
+            weight -= iterator.next().getValue().weight;
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    // estimate the memory of a 2D array of big decimals
+    private static long weigh(BigDecimal[][] array) {
+        long result = SLOT_WEIGHT * array.length;
+        for (BigDecimal[] row : array) {
+            result += SLOT_WEIGHT * row.length;
+            for (BigDecimal value : row) result += DECIMAL_WEIGHT + value.precision() * 5L / 12;
+        }
+        return result;
+    }
+}
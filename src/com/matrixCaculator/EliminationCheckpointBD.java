@@ -0,0 +1,265 @@
+package com.matrixCaculator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+/**
+ * the progress of an {@link EliminationBD} saved to a file now and then, so a long elimination can pick up where it was
+ * <p>it is given to {@link EliminationBD#run(BooleanSupplier)} as the stop check, never stopping it:
+ * between two pivots, once the interval has passed, the state is copied (the entries are immutable, so only the references)
+ * and written by a thread of its own while the elimination goes on; if the last write is not over, the copy waits for a later pivot
+ * <p>each write goes to a temporary file, forced to the disk, then moved over the checkpoint, so the checkpoint is always whole
+ * <p>a checkpoint records the size, the math context and a digest of the original matrix, and is only resumed for the same ones;
+ * the elimination is deterministic, so the resumed one ends with the same result as one never interrupted
+ */
+final class EliminationCheckpointBD implements BooleanSupplier, Closeable {
+
+    // the start of every checkpoint, "EBD" and the version of the format
+    private static final int MAGIC = 0x45424401;
+
+    // where the checkpoint goes, and where it is written first
+    private final Path file, temp;
+
+    // the elimination saved
+    private final EliminationBD elimination;
+
+    // the digest of the original matrix
+    private final byte[] digest;
+
+    // time between two checkpoints, and the time of the last one, in nanoseconds
+    private final long interval;
+    private long last;
+
+    // the writing thread, and the last write
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "elimination-checkpoint");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<?> pending = null;
+
+    // the failure of the last write, null if it worked
+    private volatile IOException failure = null;
+
+    // number of checkpoints written
+    private volatile int written = 0;
+
+    /**save an elimination to a file
+     * @param file the checkpoint
+     * @param elimination the elimination to save
+     * @param digest the digest of the original matrix, see {@link #digest(MatrixBD)}
+     * @param intervalNanos the time between two checkpoints, 0 for every pivot
+     */
+    EliminationCheckpointBD(Path file, EliminationBD elimination, byte[] digest, long intervalNanos) {
+        this.file = file;
+        this.temp = file.resolveSibling(file.getFileName() + ".tmp");
+        this.elimination = elimination;
+        this.digest = digest;
+        this.interval = intervalNanos;
+        last = System.nanoTime();
+    }
+
+    /**save the state if it is time to, never stopping the elimination
+     * @return false
+     */
+    @Override
+    public boolean getAsBoolean() {
+        if (System.nanoTime() - last < interval) return false;
+        if (pending != null && !pending.isDone()) return false;
+        last = System.nanoTime();
+        State state = new State(elimination);
+        pending = writer.submit(() -> {
+            // a failed write does not stop the elimination, the next one may work, and finish() reports the last one
+            try {
+                write(state);
+                failure = null;
+            } catch (IOException e) {
+                failure = e;
+            }
+        });
+        return false;
+    }
+
+    /**
+     * @return number of checkpoints written so far
+     */
+    int written() {
+        return written;
+    }
+
+    /**wait for the last write to finish
+     * @throws IOException if it failed
+     */
+    void finish() throws IOException {
+        await();
+        if (failure != null) throw failure;
+    }
+
+    private void await() {
+        if (pending == null) return;
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("failed to write the checkpoint", e.getCause());
+        }
+    }
+
+    /**stop the writing thread, after the last write
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        await();
+    }
+
+    // the state of an elimination between two pivots
+    private static final class State {
+        final int iC, topR, piNow;
+        final int[] piC, freeC;
+        final BigDecimal[][] rref;
+
+        State(EliminationBD elimination) {
+            iC = elimination.iC;
+            topR = elimination.topR;
+            piNow = elimination.piNow;
+            piC = elimination.piC.stream().mapToInt(Integer::intValue).toArray();
+            freeC = elimination.freeC.stream().mapToInt(Integer::intValue).toArray();
+            rref = new BigDecimal[elimination.ro][];
+            for (int i = 0; i < rref.length; i++) rref[i] = elimination.rref[i].clone();
+        }
+    }
+
+    // write a state to the temporary file, then move it over the checkpoint
+    private void write(State state) throws IOException {
+        try (FileOutputStream stream = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(elimination.ro);
+            out.writeInt(elimination.co);
+            out.writeInt(elimination.mc.getPrecision());
+            out.writeInt(elimination.mc.getRoundingMode().ordinal());
+            out.write(digest);
+            out.writeInt(state.iC);
+            out.writeInt(state.topR);
+            out.writeInt(state.piNow);
+            writeInts(out, state.piC);
+            writeInts(out, state.freeC);
+            for (BigDecimal[] row : state.rref) {
+                for (BigDecimal value : row) {
+                    byte[] unscaled = value.unscaledValue().toByteArray();
+                    out.writeInt(value.scale());
+                    out.writeInt(unscaled.length);
+                    out.write(unscaled);
+                }
+            }
+            out.flush();
+            stream.getChannel().force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        written++;
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) out.writeInt(value);
+    }
+
+    private static int[] readInts(DataInputStream in) throws IOException {
+        int[] result = new int[in.readInt()];
+        for (int i = 0; i < result.length; i++) result[i] = in.readInt();
+        return result;
+    }
+
+    /**read the elimination saved in a checkpoint
+     * @param file the checkpoint
+     * @param matrix the original matrix, to check the checkpoint is of it
+     * @param mc the math context of the elimination
+     * @param digest the digest of the original matrix, see {@link #digest(MatrixBD)}
+     * @return the elimination where it was saved, or null if there is no checkpoint
+     * @throws IOException if the checkpoint cannot be read
+     * @throws IllegalArgumentException if the checkpoint is of another matrix or math context
+     */
+    static EliminationBD read(Path file, MatrixBD matrix, MathContext mc, byte[] digest) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) throw new IOException("not a checkpoint of an elimination: " + file);
+            int ro = in.readInt(), co = in.readInt(), precision = in.readInt();
+            RoundingMode rounding = RoundingMode.values()[in.readInt()];
+            byte[] saved = new byte[32];
+            in.readFully(saved);
+            if (ro != matrix.ro() || co != matrix.co() || !new MathContext(precision, rounding).equals(mc) || !Arrays.equals(saved, digest)) {
+                throw new IllegalArgumentException("the checkpoint " + file + " is of another matrix");
+            }
+            int iC = in.readInt(), topR = in.readInt(), piNow = in.readInt();
+            int[] piC = readInts(in), freeC = readInts(in);
+            BigDecimal[][] rref = new BigDecimal[ro][co];
+            for (int i = 0; i < ro; i++) {
+                for (int j = 0; j < co; j++) {
+                    int scale = in.readInt();
+                    byte[] unscaled = new byte[in.readInt()];
+                    in.readFully(unscaled);
+                    rref[i][j] = CompactBD.canonical(new BigDecimal(new BigInteger(unscaled), scale));
+                }
+            }
+
+            EliminationBD result = EliminationBD.resume(rref, mc);
+            result.iC = iC;
+            result.topR = topR;
+            result.piNow = piNow;
+            for (int c : piC) result.piC.add(c);
+            for (int c : freeC) result.freeC.add(c);
+            return result;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**a digest of the exact entries of a matrix, value and scale
+     * @param matrix the matrix
+     * @return its SHA-256 digest
+     */
+    static byte[] digest(MatrixBD matrix) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is missing from this virtual machine", e);
+        }
+        for (int i = 0; i < matrix.ro(); i++) {
+            for (int j = 0; j < matrix.co(); j++) {
+                BigDecimal value = matrix.entry(i, j);
+                byte[] unscaled = value.unscaledValue().toByteArray();
+                update(digest, value.scale());
+                update(digest, unscaled.length);
+                digest.update(unscaled);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static void update(MessageDigest digest, int value) {
+        digest.update(new byte[]{(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value});
+    }
+}
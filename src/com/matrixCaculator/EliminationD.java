@@ -0,0 +1,178 @@
+package com.matrixCaculator;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * the elimination behind {@link MatrixD#RREF()}, run one pivot at a time
+ * <p>it works on its own copy of the matrix, so a matrix only takes the result once the elimination is done,
+ * and it can be stopped between two pivots
+ * <p>it can be reset to eliminate another matrix of the same size in the same arrays, see {@link WorkspaceD}
+ */
+final class EliminationD {
+
+    // row and column
+    final int ro, co;
+
+    // the matrix being reduced
+    final double[][] rref;
+
+    // RREF pivots, the first pivots of them
+    // free variables, the first frees of them
+    final int[] piC, freeC;
+    int pivots = 0, frees = 0;
+
+    // progress of the forward phase
+    // iC: the next column to search, from 0 to co
+    // topR: the highest row still considered, from 0 to ro
+    int iC = 0, topR = 0;
+
+    // progress of the backward phase
+    // piNow: the next pivot to clear above, from (pivot - 1) to 0, only meaningful once iC reaches co
+    int piNow = 0;
+
+    // assign variables
+    private final double[] tempArray;
+
+    /**start eliminating a copy of a matrix
+     * @param ma the matrix to reduce, which is not changed
+     */
+    EliminationD(double[][] ma) {
+        this(ma.length, ma[0].length);
+        reset(ma);
+    }
+
+    /**make the arrays for matrices of a size, to be filled by {@link #reset(double[][])}
+     * @param ro number of rows
+     * @param co number of columns
+     */
+    EliminationD(int ro, int co) {
+        this.ro = ro;
+        this.co = co;
+        rref = new double[ro][co];
+        tempArray = new double[co];
+        piC = new int[co];
+        freeC = new int[co];
+    }
+
+    /**start eliminating a copy of another matrix of the same size, in the same arrays
+     * @param ma the matrix to reduce, which is not changed
+     */
+    void reset(double[][] ma) {
+        // copy ma as rref
+        for (int i = 0; i < ro; i++) System.arraycopy(ma[i], 0, rref[i], 0, co);
+        iC = 0;
+        topR = 0;
+        piNow = 0;
+        pivots = 0;
+        frees = 0;
+    }
+
+    /**
+     * @return whether the matrix is in reduced echelon form
+     */
+    boolean done() {
+        return iC >= co && piNow <= 0;
+    }
+
+    /**run the elimination to the end, or until stop says so
+     * @param stop checked before every pivot, null to never stop
+     * @return whether the elimination is done
+     */
+    boolean run(BooleanSupplier stop) {
+        while (!done()) {
+            if (stop != null && stop.getAsBoolean()) return false;
+            step();
+        }
+        return true;
+    }
+
+    // eliminate one column in the forward phase, or clear above one pivot in the backward phase
+    void step() {
+        if (iC < co) {
+            forward();
+            iC++;
+            // number of pivots, the backward phase starts from the bottom one
+            if (iC == co) piNow = pivots - 1;
+        } else {
+            backward();
+            piNow--;
+        }
+    }
+
+    // forward phase, for column iC
+    private void forward() {
+        double tempDec;
+
+        // no enough rows so the rest become free variables
+        if (topR >= ro) {
+            // it is a free variable if not a constant
+            if (iC < co - 1) freeC[frees++] = iC;
+            return;
+        }
+
+        // there are still rows to be searched
+        // tR: current row scanning
+        for (int tR = topR; tR < ro; tR++) {
+            // found nonzero entry, use it as a pivot
+            if (rref[tR][iC] != 0) {
+                // swap it to the top
+                System.arraycopy(rref[tR], 0, tempArray, 0, co);
+                System.arraycopy(rref[topR], 0, rref[tR], 0, co);
+                System.arraycopy(tempArray, 0, rref[topR], 0, co);
+
+                // record it
+                piC[pivots++] = iC;
+
+                // make pivot 1
+                tempDec = rref[topR][iC];
+
+                for (int i = iC; i < co; i++) {
+                    rref[topR][i] = rref[topR][i] / tempDec;
+                }
+
+                // check all entries below for nonzero entries and eliminate them
+                for (int checkR = topR + 1; checkR < ro; checkR++) {
+                    // nonzero entries found
+                    if (rref[checkR][iC] != 0) {
+                        // subtract all of them to cancel the entry
+                        tempDec = rref[checkR][iC];
+                        for (int i = iC; i < co; i++) {
+                            rref[checkR][i] = rref[checkR][i] - rref[topR][i] * tempDec;
+                        }
+                    }
+                }
+
+                // now all is done, another top row eliminated
+                topR++;
+
+                // stop looking for entries in this column
+                return;
+            }
+        }
+
+        // no nonzero entry in this column, it is a free variable if not the last column
+        if (iC < co - 1) freeC[frees++] = iC;
+    }
+
+    // backward phase, for pivot piNow
+    // there is no point checking for pivot 0 as nothing is above it
+    // it is also the row index for sure
+    private void backward() {
+        double tempDec;
+        int pC = piC[piNow];
+
+        // check upwards one-by-one from the pivots and eliminate nonzero entries
+        // checkR: the row being checked
+        for (int checkR = piNow - 1; checkR >= 0; checkR--) {
+            // found nonzero entry
+            if (rref[checkR][pC] != 0) {
+                tempDec = rref[checkR][pC];
+
+                // eliminate the entry, from piNow's column to the rightmost
+                for (int i = pC; i < co; i++) {
+                    rref[checkR][i] = rref[checkR][i] - rref[piNow][i] * tempDec;
+                }
+            }
+        }
+    }
+}
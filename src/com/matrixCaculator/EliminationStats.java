@@ -0,0 +1,288 @@
+package com.matrixCaculator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * counters and timings of the big decimal work in {@link MatrixBD}
+ * <p>when enabled, the forward and backward phases of {@link MatrixBD#RREF()}, the back-substitution of {@link MatrixBD#sol()}
+ * and the products of {@code time(...)} count their big decimal multiplications, divisions and scale settings,
+ * the pivots, row swaps, fill-in (0 entries becoming nonzero) and the longest number of digits reached
+ * <p>each phase that finishes adds to the totals here, available through JMX as {@code com.matrixCaculator:type=EliminationStats},
+ * and commits a {@code com.matrixCaculator.Phase} JFR event
+ * <p>it is disabled by default, where the only cost is a null check per entry that is never taken;
+ * enable it with {@link #enable(boolean)}, JMX or the system property {@code matrixCaculator.stats=true}
+ */
+public final class EliminationStats implements EliminationStatsMBean {
+
+    /**the phases measured
+     */
+    public enum Phase {
+        RREF_FORWARD, RREF_BACKWARD, SOL, TIME
+    }
+
+    // the instance registered to JMX
+    private static final EliminationStats INSTANCE = new EliminationStats();
+
+    private static volatile boolean enabled = Boolean.getBoolean("matrixCaculator.stats");
+
+    // totals of all phases
+    private static final LongAdder multiplies = new LongAdder(), divides = new LongAdder(), setScales = new LongAdder(),
+            pivots = new LongAdder(), rowSwaps = new LongAdder(), fillIn = new LongAdder();
+    private static final LongAccumulator maxDigits = new LongAccumulator(Math::max, 0);
+
+    // count and time of each phase
+    private static final LongAdder[] calls = new LongAdder[Phase.values().length], nanos = new LongAdder[Phase.values().length];
+
+    static {
+        for (int i = 0; i < calls.length; i++) {
+            calls[i] = new LongAdder();
+            nanos[i] = new LongAdder();
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName("com.matrixCaculator:type=EliminationStats"));
+        } catch (Exception | LinkageError e) {
+            // no JMX, the counters are still available here
+        }
+    }
+
+    private EliminationStats() {
+    }
+
+    /**
+     * @return whether the phases are measured
+     */
+    public static boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * @param enable whether to measure the phases from now on
+     */
+    public static void enable(boolean enable) {
+        enabled = enable;
+    }
+
+    /**
+     * @return the instance registered to JMX
+     */
+    public static EliminationStats get() {
+        return INSTANCE;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enable) {
+        enabled = enable;
+    }
+
+    @Override
+    public long getMultiplies() {
+        return multiplies.sum();
+    }
+
+    @Override
+    public long getDivides() {
+        return divides.sum();
+    }
+
+    @Override
+    public long getSetScales() {
+        return setScales.sum();
+    }
+
+    @Override
+    public long getPivots() {
+        return pivots.sum();
+    }
+
+    @Override
+    public long getRowSwaps() {
+        return rowSwaps.sum();
+    }
+
+    @Override
+    public long getFillIn() {
+        return fillIn.sum();
+    }
+
+    @Override
+    public long getMaxDigits() {
+        return maxDigits.get();
+    }
+
+    @Override
+    public long getEliminations() {
+        return calls[Phase.RREF_FORWARD.ordinal()].sum();
+    }
+
+    @Override
+    public long getForwardNanos() {
+        return nanos[Phase.RREF_FORWARD.ordinal()].sum();
+    }
+
+    @Override
+    public long getBackwardNanos() {
+        return nanos[Phase.RREF_BACKWARD.ordinal()].sum();
+    }
+
+    @Override
+    public long getSolNanos() {
+        return nanos[Phase.SOL.ordinal()].sum();
+    }
+
+    @Override
+    public long getTimeNanos() {
+        return nanos[Phase.TIME.ordinal()].sum();
+    }
+
+    @Override
+    public void reset() {
+        multiplies.reset();
+        divides.reset();
+        setScales.reset();
+        pivots.reset();
+        rowSwaps.reset();
+        fillIn.reset();
+        maxDigits.reset();
+        for (int i = 0; i < calls.length; i++) {
+            calls[i].reset();
+            nanos[i].reset();
+        }
+    }
+
+    // to string
+    public String toString() {
+        return "multiplies=" + getMultiplies() + ", divides=" + getDivides() + ", setScales=" + getSetScales()
+                + ", pivots=" + getPivots() + ", rowSwaps=" + getRowSwaps() + ", fillIn=" + getFillIn() + ", maxDigits=" + getMaxDigits()
+                + ", forwardNanos=" + getForwardNanos() + ", backwardNanos=" + getBackwardNanos()
+                + ", solNanos=" + getSolNanos() + ", timeNanos=" + getTimeNanos();
+    }
+
+    // the counts of one run of a phase, kept by the thread running it and added to the totals when it finishes
+    static final class Counter {
+        private final Phase phase;
+        private final PhaseEvent event = new PhaseEvent();
+        private long start;
+        long multiplies, divides, setScales, pivots, rowSwaps, fillIn, nanos;
+        int maxDigits;
+
+        Counter(Phase phase, int rows, int columns) {
+            this.phase = phase;
+            event.phase = phase.name();
+            event.rows = rows;
+            event.columns = columns;
+        }
+
+        // start or resume timing
+        void start() {
+            if (start == 0) event.begin();
+            start = System.nanoTime();
+        }
+
+        // pause timing
+        void stop() {
+            nanos += System.nanoTime() - start;
+        }
+
+        // one entry updated to value, from old
+        void update(BigDecimal old, BigDecimal value, boolean rounded) {
+            multiplies++;
+            if (rounded) setScales++;
+            if (old.signum() == 0 && value.signum() != 0) fillIn++;
+            digits(value);
+        }
+
+        // one entry divided to value
+        void divide(BigDecimal value) {
+            divides++;
+            digits(value);
+        }
+
+        void digits(BigDecimal value) {
+            if (value.precision() > maxDigits) maxDigits = value.precision();
+        }
+
+        // add to the totals and commit the event
+        void finish() {
+            EliminationStats.multiplies.add(multiplies);
+            EliminationStats.divides.add(divides);
+            EliminationStats.setScales.add(setScales);
+            EliminationStats.pivots.add(pivots);
+            EliminationStats.rowSwaps.add(rowSwaps);
+            EliminationStats.fillIn.add(fillIn);
+            EliminationStats.maxDigits.accumulate(maxDigits);
+            calls[phase.ordinal()].increment();
+            EliminationStats.nanos[phase.ordinal()].add(nanos);
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.multiplies = multiplies;
+                event.divides = divides;
+                event.setScales = setScales;
+                event.pivots = pivots;
+                event.rowSwaps = rowSwaps;
+                event.fillIn = fillIn;
+                event.maxDigits = maxDigits;
+                event.computeNanos = nanos;
+                event.commit();
+            }
+        }
+    }
+
+    @Name("com.matrixCaculator.Phase")
+    @Label("Matrix Phase")
+    @Category("Matrix")
+    @Description("One phase of an elimination, solution or product of a big decimal matrix")
+    static final class PhaseEvent extends Event {
+        @Label("Phase")
+        String phase;
+
+        @Label("Rows")
+        int rows;
+
+        @Label("Columns")
+        int columns;
+
+        @Label("Multiplications")
+        long multiplies;
+
+        @Label("Divisions")
+        long divides;
+
+        @Label("Scale Settings")
+        long setScales;
+
+        @Label("Pivots")
+        long pivots;
+
+        @Label("Row Swaps")
+        long rowSwaps;
+
+        @Label("Fill-in")
+        @Description("0 entries that became nonzero")
+        long fillIn;
+
+        @Label("Maximum Digits")
+        int maxDigits;
+
+        @Label("Compute Time")
+        @Description("Time spent computing, without pauses between pivots")
+        @Timespan(Timespan.NANOSECONDS)
+        long computeNanos;
+    }
+}
@@ -0,0 +1,37 @@
+package com.matrixCaculator;
+
+/**
+ * the JMX view of {@link EliminationStats}
+ */
+public interface EliminationStatsMBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enable);
+
+    long getMultiplies();
+
+    long getDivides();
+
+    long getSetScales();
+
+    long getPivots();
+
+    long getRowSwaps();
+
+    long getFillIn();
+
+    long getMaxDigits();
+
+    long getEliminations();
+
+    long getForwardNanos();
+
+    long getBackwardNanos();
+
+    long getSolNanos();
+
+    long getTimeNanos();
+
+    void reset();
+}
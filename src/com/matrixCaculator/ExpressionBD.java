@@ -0,0 +1,410 @@
+package com.matrixCaculator;
+
+import com.vectorCalculation.VectorBD;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * lazy arithmetic on {@link VectorBD} and {@link MatrixBD}: the operations only build a small expression graph,
+ * and nothing is computed until it is evaluated
+ * <p>a vector expression is evaluated in one pass over its entries, computing entry i of every node in turn,
+ * so a chain such as {@code a.add(b).min(c.time(k))} makes no intermediate vector, only the result;
+ * nodes computing the same thing from the same operands (a.add(b) built twice, or b.add(a)) are computed once
+ * <p>the operations are exact, like those of VectorBD, and the result is rounded once at the end under the math context given
+ * <p>a scalar, such as a dot product, is computed once before the pass that uses it,
+ * and the vector multiplied by a matrix once before the pass that multiplies it, as every entry of the product needs all of its entries
+ */
+public final class ExpressionBD {
+
+    private ExpressionBD() {
+    }
+
+    /**
+     * @param vector the vector, read when the expression is evaluated
+     * @return an expression of the vector
+     */
+    public static Vector of(VectorBD vector) {
+        if (vector == null) throw new NullPointerException("vector cannot be null");
+        return new Vector(Kind.LEAF, vector.dim(), null, null, null, vector, null);
+    }
+
+    /**
+     * @param value the value
+     * @return an expression of the scalar
+     */
+    public static Scalar of(BigDecimal value) {
+        if (value == null) throw new NullPointerException("value cannot be null");
+        return new Scalar(value, null, null);
+    }
+
+    // multiply by vector
+    /**multiply a matrix by a vector expression, like {@link MatrixBD#time(VectorBD)}
+     * @param matrix the matrix, read when the expression is evaluated
+     * @param that the vector to multiply, with dimension equal to the columns of the matrix
+     * @return an expression of the product
+     */
+    public static Vector time(MatrixBD matrix, Vector that) {
+        if (matrix == null) throw new NullPointerException("matrix cannot be null");
+        if (that == null) throw new IllegalArgumentException("the vector to multiply must not be null");
+        if (matrix.co() != that.n) throw new IllegalArgumentException("the number of columns of the matrix must equal to the number of dimensions of the vector");
+        return new Vector(Kind.MATRIX, matrix.ro(), that, null, null, null, matrix);
+    }
+
+    // what a vector node computes
+    private enum Kind {
+        LEAF, ADD, MIN, SCALE, MATRIX
+    }
+
+    /**a vector expression
+     */
+    public static final class Vector {
+        private final Kind kind;
+        private final int n;
+        private final Vector left, right;
+        private final Scalar factor;
+        private final VectorBD leaf;
+        private final MatrixBD matrix;
+
+        private Vector(Kind kind, int n, Vector left, Vector right, Scalar factor, VectorBD leaf, MatrixBD matrix) {
+            this.kind = kind;
+            this.n = n;
+            this.left = left;
+            this.right = right;
+            this.factor = factor;
+            this.leaf = leaf;
+            this.matrix = matrix;
+        }
+
+        /**
+         * @return the number of dimension of the result
+         */
+        public int dim() {
+            return n;
+        }
+
+        // add
+        /**
+         * @param that the vector to be added
+         * @return an expression of the sum of the two vectors
+         */
+        public Vector add(Vector that) {
+            check(that, "added");
+            return new Vector(Kind.ADD, n, this, that, null, null, null);
+        }
+
+        /**
+         * @param that the vector to be added
+         * @return an expression of the sum of the two vectors
+         */
+        public Vector add(VectorBD that) {
+            return add(that == null ? null : of(that));
+        }
+
+        // minus
+        /**
+         * @param that the vector to be subtracted
+         * @return an expression of this vector minus that vector
+         */
+        public Vector min(Vector that) {
+            check(that, "to subtract");
+            return new Vector(Kind.MIN, n, this, that, null, null, null);
+        }
+
+        /**
+         * @param that the vector to be subtracted
+         * @return an expression of this vector minus that vector
+         */
+        public Vector min(VectorBD that) {
+            return min(that == null ? null : of(that));
+        }
+
+        // times scalar
+        /**
+         * @param that the scalar to be multiplied
+         * @return an expression of the vector multiplied by the scalar
+         */
+        public Vector time(Scalar that) {
+            if (that == null) throw new IllegalArgumentException("the scalar to multiply must not be null");
+            return new Vector(Kind.SCALE, n, this, null, that, null, null);
+        }
+
+        /**
+         * @param that the scalar to be multiplied
+         * @return an expression of the vector multiplied by the scalar
+         */
+        public Vector time(BigDecimal that) {
+            if (that == null) throw new IllegalArgumentException("the scalar to multiply must not be null");
+            return time(of(that));
+        }
+
+        /**
+         * @param that the scalar to be multiplied
+         * @return an expression of the vector multiplied by the scalar
+         */
+        public Vector time(long that) {
+            return time(BigDecimal.valueOf(that));
+        }
+
+        // dot product
+        /**
+         * @param that the vector to be dotted
+         * @return an expression of the dot product of the two vectors
+         */
+        public Scalar dot(Vector that) {
+            check(that, "dotted");
+            return new Scalar(null, this, that);
+        }
+
+        /**
+         * @param that the vector to be dotted
+         * @return an expression of the dot product of the two vectors
+         */
+        public Scalar dot(VectorBD that) {
+            return dot(that == null ? null : of(that));
+        }
+
+        private void check(Vector that, String role) {
+            if (that == null) throw new IllegalArgumentException("the vector " + role + " must not be null");
+            if (n != that.n) throw new IllegalArgumentException("the dimensions of the two vectors must be the same");
+        }
+
+        // evaluate
+        /**evaluate the expression in one pass, rounding each entry of the result once
+         * @param mc the math context to round the result to, {@link MathContext#UNLIMITED} to keep it exact
+         * @return the vector the expression stands for
+         */
+        public VectorBD eval(MathContext mc) {
+            if (mc == null) throw new NullPointerException("mc cannot be null");
+            BigDecimal[] result = new Evaluation().vector(this);
+            if (mc.getPrecision() > 0) {
+                for (int i = 0; i < n; i++) result[i] = result[i].round(mc);
+            }
+            return new VectorBD(result);
+        }
+
+        /**evaluate the expression in one pass, rounding each entry of the result once to 34 digits, like {@link MatrixBD}
+         * @return the vector the expression stands for
+         */
+        public VectorBD eval() {
+            return eval(MathContext.DECIMAL128);
+        }
+    }
+
+    /**a scalar expression, a value or the dot product of two vector expressions
+     */
+    public static final class Scalar {
+        private final BigDecimal value;
+        private final Vector left, right;
+
+        private Scalar(BigDecimal value, Vector left, Vector right) {
+            this.value = value;
+            this.left = left;
+            this.right = right;
+        }
+
+        // evaluate
+        /**evaluate the expression in one pass, rounding once
+         * @param mc the math context to round the result to, {@link MathContext#UNLIMITED} to keep it exact
+         * @return the value the expression stands for
+         */
+        public BigDecimal eval(MathContext mc) {
+            if (mc == null) throw new NullPointerException("mc cannot be null");
+            return new Evaluation().scalar(this).round(mc);
+        }
+
+        /**evaluate the expression in one pass, rounding once to 34 digits, like {@link MatrixBD}
+         * @return the value the expression stands for
+         */
+        public BigDecimal eval() {
+            return eval(MathContext.DECIMAL128);
+        }
+    }
+
+    // one evaluation, keeping the exact scalars and matrix operands already computed
+    private static final class Evaluation {
+        private final Map<Object, Object> done = new IdentityHashMap<>();
+
+        BigDecimal scalar(Scalar scalar) {
+            if (scalar.value != null) return scalar.value;
+            BigDecimal result = (BigDecimal) done.get(scalar);
+            if (result == null) {
+                Program program = new Program(this);
+                int a = program.compile(scalar.left), b = program.compile(scalar.right);
+                result = program.dot(scalar.left.n, a, b);
+                done.put(scalar, result);
+            }
+            return result;
+        }
+
+        BigDecimal[] vector(Vector vector) {
+            Program program = new Program(this);
+            int root = program.compile(vector);
+            return program.vector(vector.n, root);
+        }
+
+        // the vector a matrix multiplies, computed whole
+        BigDecimal[] operand(Vector vector) {
+            if (vector.kind == Kind.LEAF) return vector.leaf.toArray();
+            BigDecimal[] result = (BigDecimal[]) done.get(vector);
+            if (result == null) {
+                result = vector(vector);
+                done.put(vector, result);
+            }
+            return result;
+        }
+    }
+
+    // a node of a program, equal to another one computing the same thing from the same operands
+    private static final class Key {
+        final Kind kind;
+        final int a, b;
+        final Object operand;
+
+        Key(Kind kind, int a, int b, Object operand) {
+            this.kind = kind;
+            // a sum is the same whichever way round
+            this.a = kind == Kind.ADD ? Math.min(a, b) : a;
+            this.b = kind == Kind.ADD ? Math.max(a, b) : b;
+            this.operand = operand;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key that = (Key) o;
+            // operands are the same by identity, or by value for scalars
+            boolean same = operand instanceof BigDecimal ? operand.equals(that.operand) : operand == that.operand;
+            return kind == that.kind && a == that.a && b == that.b && same;
+        }
+
+        @Override
+        public int hashCode() {
+            int operandHash = operand instanceof BigDecimal ? operand.hashCode() : System.identityHashCode(operand);
+            return Objects.hash(kind, a, b, operandHash);
+        }
+    }
+
+    // the nodes of a vector expression in order, each computed from earlier ones, one entry at a time
+    private static final class Program {
+        private final Evaluation evaluation;
+
+        // each instruction: what it computes, from which earlier instructions, and its operand
+        private final List<Kind> kinds = new ArrayList<>();
+        private final List<int[]> arguments = new ArrayList<>();
+        private final List<Object> operands = new ArrayList<>();
+        private final Map<Key, Integer> index = new HashMap<>();
+
+        Program(Evaluation evaluation) {
+            this.evaluation = evaluation;
+        }
+
+        // the instruction computing a node, added with those of its operands unless the same is already there
+        int compile(Vector node) {
+            int a = -1, b = -1;
+            Object operand = null;
+            switch (node.kind) {
+                case LEAF:
+                    operand = node.leaf.toArray();
+                    break;
+                case ADD:
+                case MIN:
+                    a = compile(node.left);
+                    b = compile(node.right);
+                    break;
+                case SCALE:
+                    a = compile(node.left);
+                    operand = evaluation.scalar(node.factor);
+                    break;
+                case MATRIX:
+                    operand = new Object[]{node.matrix, evaluation.operand(node.left)};
+                    break;
+            }
+            // a matrix product is only the same as another of the same matrix and vector node
+            Key key = new Key(node.kind, a, b, node.kind == Kind.MATRIX ? node : operand);
+            Integer found = index.get(key);
+            if (found != null) return found;
+            kinds.add(node.kind);
+            arguments.add(new int[]{a, b});
+            operands.add(operand);
+            index.put(key, kinds.size() - 1);
+            return kinds.size() - 1;
+        }
+
+        // entry i of every instruction into registers
+        private void run(int i, BigDecimal[] registers) {
+            for (int k = 0; k < registers.length; k++) {
+                int[] argument = arguments.get(k);
+                switch (kinds.get(k)) {
+                    case LEAF:
+                        registers[k] = ((BigDecimal[]) operands.get(k))[i];
+                        break;
+                    case ADD:
+                        registers[k] = registers[argument[0]].add(registers[argument[1]]);
+                        break;
+                    case MIN:
+                        registers[k] = registers[argument[0]].subtract(registers[argument[1]]);
+                        break;
+                    case SCALE:
+                        registers[k] = registers[argument[0]].multiply((BigDecimal) operands.get(k));
+                        break;
+                    case MATRIX:
+                        Object[] product = (Object[]) operands.get(k);
+                        MatrixBD matrix = (MatrixBD) product[0];
+                        BigDecimal[] x = (BigDecimal[]) product[1];
+                        BigDecimal sum = BigDecimal.ZERO;
+                        for (int j = 0; j < x.length; j++) {
+                            BigDecimal entry = matrix.entry(i, j);
+                            if (entry.signum() != 0) sum = sum.add(entry.multiply(x[j]));
+                        }
+                        registers[k] = sum;
+                        break;
+                }
+            }
+        }
+
+        BigDecimal[] vector(int n, int root) {
+            BigDecimal[] result = new BigDecimal[n], registers = new BigDecimal[kinds.size()];
+            for (int i = 0; i < n; i++) {
+                run(i, registers);
+                result[i] = registers[root];
+            }
+            return result;
+        }
+
+        BigDecimal dot(int n, int a, int b) {
+            BigDecimal result = BigDecimal.ZERO;
+            BigDecimal[] registers = new BigDecimal[kinds.size()];
+            for (int i = 0; i < n; i++) {
+                run(i, registers);
+                result = result.add(registers[a].multiply(registers[b]));
+            }
+            return result;
+        }
+    }
+
+    // test client
+    public static void main(String[] args) {
+        VectorBD a = new VectorBD(new String[]{"8", "4.5", "3"}), b = new VectorBD(new int[]{2, 0, 1}), c = new VectorBD(new String[]{"0.1", "0.2", "0.3"});
+        MatrixBD m = new MatrixBD(new int[][]{{2, 3, 4}, {-1, 5, -3}, {6, -2, 8}});
+        BigDecimal k = new BigDecimal("1.5");
+
+        // the same as the eager operations, computed in one pass
+        Vector sum = of(a).add(b);
+        Vector chain = sum.min(of(c).time(k));
+        System.out.println(chain.eval() + " " + a.add(b).min(c.time(k)));
+        System.out.println(chain.dot(b).eval() + " " + a.add(b).min(c.time(k)).dot(b));
+        System.out.println(time(m, chain).eval() + " " + m.time(a.add(b).min(c.time(k))));
+
+        // a + b is computed once for both sides, and the dot product once for all entries
+        Vector shared = of(b).add(a).time(sum.dot(c)).add(sum);
+        System.out.println(shared.eval() + " " + b.add(a).time(a.add(b).dot(c)).add(a.add(b)));
+        System.out.println(of(a).time(3).min(of(b)).eval(new MathContext(2)));
+    }
+}
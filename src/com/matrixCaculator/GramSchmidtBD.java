@@ -0,0 +1,226 @@
+package com.matrixCaculator;
+
+import com.vectorCalculation.VectorBD;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * the orthonormalization of the columns of a matrix of big decimals by modified Gram-Schmidt, as the factorization A = Q R
+ * <p>Q has orthonormal columns spanning those of A, and R is upper triangular with a positive diagonal
+ * <p>it goes as {@link GramSchmidtD}: block by block, each block projected off the columns before it in parallel,
+ * then orthonormalized column by column, projecting a column a second time when its norm drops below 1 / √2 of what it was
+ * <p>each dot product is summed exactly and rounded once; the square of the norm of a column comes with its last projection,
+ * so each norm takes one square root and {@link VectorBD#mag()} is never called
+ */
+public class GramSchmidtBD {
+
+    // number of columns in a block
+    private static final int BLOCK = 16;
+
+    // below this many multiplications to project a block, project its columns sequentially
+    private static final long PARALLEL_WORK = 1L << 10;
+
+    private static final BigDecimal TWO = BigDecimal.valueOf(2);
+
+    // for the big decimal calculation, we need a math context
+    private final MathContext mc;
+
+    // a column is dependent on the ones before it when the square of its norm drops below this fraction of what it was
+    private final BigDecimal dependent;
+
+    // rows and columns of A
+    private final int m, k;
+
+    // column j of Q at q[j], copied from A and orthonormalized in place
+    private final BigDecimal[][] q;
+
+    // R, upper triangular
+    private final BigDecimal[][] r;
+
+    // constructor
+    /**orthonormalize the columns of a matrix to 34 digits, like {@link MatrixBD}
+     * @param columns the matrix whose columns are the vectors, which is not changed
+     * @throws ArithmeticException if a column is a linear combination of the ones before it
+     */
+    public GramSchmidtBD(MatrixBD columns) {
+        this(columns, MathContext.DECIMAL128);
+    }
+
+    /**orthonormalize the columns of a matrix
+     * <p>a column is taken as a combination of the ones before it when projecting them off leaves less than half the digits of its norm
+     * @param columns the matrix whose columns are the vectors, which is not changed
+     * @param mc the math context to round to
+     * @throws ArithmeticException if a column is a linear combination of the ones before it
+     */
+    public GramSchmidtBD(MatrixBD columns, MathContext mc) {
+        if (columns == null) throw new NullPointerException("columns cannot be null");
+        if (mc == null || mc.getPrecision() == 0) throw new IllegalArgumentException("the math context must have a limited precision");
+        this.mc = mc;
+        dependent = BigDecimal.ONE.scaleByPowerOfTen(-mc.getPrecision());
+        m = columns.ro();
+        k = columns.co();
+        q = new BigDecimal[k][m];
+        for (int i = 0; i < m; i++) for (int j = 0; j < k; j++) q[j][i] = columns.entry(i, j);
+        r = zeros(k);
+        factor();
+    }
+
+    /**orthonormalize a set of vectors of the same dimension to 34 digits, like {@link MatrixBD}
+     * @param vectors the vectors, which are not changed
+     * @throws ArithmeticException if a vector is a linear combination of the ones before it
+     */
+    public GramSchmidtBD(VectorBD[] vectors) {
+        if (vectors == null) throw new NullPointerException("vectors cannot be null");
+        if (vectors.length == 0) throw new IllegalArgumentException("there must be at least one vector");
+        mc = MathContext.DECIMAL128;
+        dependent = BigDecimal.ONE.scaleByPowerOfTen(-mc.getPrecision());
+        m = vectors[0].dim();
+        k = vectors.length;
+        q = new BigDecimal[k][];
+        for (int j = 0; j < k; j++) {
+            if (vectors[j].dim() != m) throw new IllegalArgumentException("the dimensions of the vectors must be the same");
+            q[j] = vectors[j].toArray().clone();
+        }
+        r = zeros(k);
+        factor();
+    }
+
+    private static BigDecimal[][] zeros(int k) {
+        BigDecimal[][] result = new BigDecimal[k][k];
+        for (BigDecimal[] row : result) Arrays.fill(row, BigDecimal.ZERO);
+        return result;
+    }
+
+    // access
+    /**
+     * @return Q as a new matrix, whose columns are the orthonormal vectors
+     */
+    public MatrixBD Q(){
+        BigDecimal[][] result = new BigDecimal[m][k];
+        for (int j = 0; j < k; j++) for (int i = 0; i < m; i++) result[i][j] = q[j][i];
+        return new MatrixBD(result);
+    }
+
+    /**
+     * @return R as a new matrix, upper triangular, such that A = Q R
+     */
+    public MatrixBD R(){
+        return new MatrixBD(r);
+    }
+
+    /**
+     * @param column the index of the vector
+     * @return orthonormal vector column, column column of Q
+     */
+    public VectorBD q(int column){
+        if (column < 0 || column >= k) throw new IndexOutOfBoundsException("no column " + column);
+        return new VectorBD(q[column]);
+    }
+
+    /**
+     * @return all the orthonormal vectors, the columns of Q
+     */
+    public VectorBD[] basis(){
+        VectorBD[] result = new VectorBD[k];
+        for (int j = 0; j < k; j++) result[j] = new VectorBD(q[j]);
+        return result;
+    }
+
+    // block by block: the block projected off the columns before it, then orthonormalized inside
+    private void factor() {
+        for (int j0 = 0; j0 < k; j0 += BLOCK) {
+            int j0Final = j0, j1 = Math.min(k, j0 + BLOCK);
+            // the squares of the norms of the block before it is projected, and as it is projected
+            BigDecimal[] original = new BigDecimal[j1 - j0], square = new BigDecimal[j1 - j0];
+            for (int j = j0; j < j1; j++) original[j - j0] = square[j - j0] = dot(q[j], q[j]);
+
+            IntConsumer before = j -> square[j - j0Final] = project(j, 0, j0Final, square[j - j0Final]);
+            if ((long) (j1 - j0) * j0 * m < PARALLEL_WORK) for (int j = j0; j < j1; j++) before.accept(j);
+            else ForkJoinPool.commonPool().invoke(new Columns(j0, j1, before));
+            for (int j = j0; j < j1; j++) normalize(j, project(j, j0, j, square[j - j0]), original[j - j0]);
+        }
+    }
+
+    // project column j off the columns of Q from i0 to i1, again if its norm drops too much
+    // before: the square of its norm now, return the square of its norm afterwards
+    private BigDecimal project(int j, int i0, int i1, BigDecimal before) {
+        if (i0 == i1) return before;
+        BigDecimal after = pass(q[j], j, i0, i1);
+        if (after.multiply(TWO).compareTo(before) < 0) after = pass(q[j], j, i0, i1);
+        return after;
+    }
+
+    // one pass of modified Gram-Schmidt, adding the projections to R
+    private BigDecimal pass(BigDecimal[] v, int j, int i0, int i1) {
+        for (int i = i0; i < i1; i++) {
+            BigDecimal[] qi = q[i];
+            BigDecimal rij = dot(qi, v);
+            if (rij.signum() == 0) continue;
+            r[i][j] = r[i][j].add(rij, mc);
+            for (int l = 0; l < m; l++) {
+                if (qi[l].signum() != 0) v[l] = v[l].subtract(rij.multiply(qi[l]), mc);
+            }
+        }
+        return dot(v, v);
+    }
+
+    // divide column j by its norm, from the square kept
+    private void normalize(int j, BigDecimal square, BigDecimal original) {
+        if (square.compareTo(original.multiply(dependent)) <= 0) throw new ArithmeticException("the vectors are linearly dependent, vector " + j + " is a combination of the ones before it");
+        BigDecimal norm = square.sqrt(mc);
+        r[j][j] = norm;
+        BigDecimal[] v = q[j];
+        for (int l = 0; l < m; l++) v[l] = CompactBD.canonical(v[l].divide(norm, mc));
+    }
+
+    // dot product, summed exactly and rounded once
+    private BigDecimal dot(BigDecimal[] x, BigDecimal[] y) {
+        BigDecimal result = BigDecimal.ZERO;
+        for (int i = 0; i < x.length; i++) {
+            if (x[i].signum() != 0 && y[i].signum() != 0) result = result.add(x[i].multiply(y[i]));
+        }
+        return result.round(mc);
+    }
+
+    // columns from j0 to j1, split in halves down to one
+    private static final class Columns extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int j0, j1;
+        private final IntConsumer action;
+
+        Columns(int j0, int j1, IntConsumer action) {
+            this.j0 = j0;
+            this.j1 = j1;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (j1 - j0 == 1) {
+                action.accept(j0);
+                return;
+            }
+            int middle = (j0 + j1) >>> 1;
+            invokeAll(new Columns(j0, middle, action), new Columns(middle, j1, action));
+        }
+    }
+
+    // test client
+    public static void main(String[] args) {
+        GramSchmidtBD a = new GramSchmidtBD(new MatrixBD(new int[][]{{12, -51, 4}, {6, 167, -68}, {-4, 24, -41}}));
+        System.out.println(a.Q());
+        System.out.println(a.R());
+        System.out.println(a.q(0).dot(a.q(1)) + " " + a.q(1).dot(a.q(1)));
+        try {
+            new GramSchmidtBD(new VectorBD[]{new VectorBD(new int[]{1, 2, 3}), new VectorBD(new int[]{2, 4, 6})});
+        } catch (ArithmeticException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.matrixCaculator;
+
+import com.vectorCalculation.VectorD;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * the orthonormalization of the columns of a matrix of doubles by modified Gram-Schmidt, as the factorization A = Q R
+ * <p>Q has orthonormal columns spanning those of A, and R is upper triangular with a positive diagonal
+ * <p>the columns are taken in blocks: each column of a block is first projected off all the columns of Q before the block,
+ * the columns of the block in parallel, then the block is orthonormalized column by column
+ * <p>a column whose norm drops below 1 / √2 of what it was while projected is projected a second time,
+ * which is enough to keep Q orthogonal to the rounding errors; the norms are kept, not computed again
+ */
+public class GramSchmidtD {
+
+    // number of columns in a block
+    private static final int BLOCK = 32;
+
+    // below this many multiplications to project a block, project its columns sequentially
+    private static final long PARALLEL_WORK = 1L << 16;
+
+    // a column is dependent on the ones before it when its norm drops below this fraction of what it was
+    private static final double DEPENDENT = 1e-14;
+
+    // rows and columns of A
+    private final int m, k;
+
+    // column j of Q at q[j], copied from A and orthonormalized in place
+    private final double[][] q;
+
+    // R, upper triangular
+    private final double[][] r;
+
+    // constructor
+    /**orthonormalize the columns of a matrix
+     * @param columns the matrix whose columns are the vectors, which is not changed
+     * @throws ArithmeticException if a column is a linear combination of the ones before it
+     */
+    public GramSchmidtD(MatrixD columns) {
+        if (columns == null) throw new NullPointerException("columns cannot be null");
+        double[][] a = columns.toArray();
+        m = columns.ro();
+        k = columns.co();
+        q = new double[k][m];
+        for (int i = 0; i < m; i++) for (int j = 0; j < k; j++) q[j][i] = a[i][j];
+        r = new double[k][k];
+        factor();
+    }
+
+    /**orthonormalize a set of vectors of the same dimension
+     * @param vectors the vectors, which are not changed
+     * @throws ArithmeticException if a vector is a linear combination of the ones before it
+     */
+    public GramSchmidtD(VectorD[] vectors) {
+        if (vectors == null) throw new NullPointerException("vectors cannot be null");
+        if (vectors.length == 0) throw new IllegalArgumentException("there must be at least one vector");
+        m = vectors[0].dim();
+        k = vectors.length;
+        q = new double[k][];
+        for (int j = 0; j < k; j++) {
+            if (vectors[j].dim() != m) throw new IllegalArgumentException("the dimensions of the vectors must be the same");
+            q[j] = vectors[j].toArray().clone();
+        }
+        r = new double[k][k];
+        factor();
+    }
+
+    // access
+    /**
+     * @return Q as a new matrix, whose columns are the orthonormal vectors
+     */
+    public MatrixD Q(){
+        double[][] result = new double[m][k];
+        for (int j = 0; j < k; j++) for (int i = 0; i < m; i++) result[i][j] = q[j][i];
+        return new MatrixD(result);
+    }
+
+    /**
+     * @return R as a new matrix, upper triangular, such that A = Q R
+     */
+    public MatrixD R(){
+        return new MatrixD(r);
+    }
+
+    /**
+     * @param column the index of the vector
+     * @return orthonormal vector column, column column of Q
+     */
+    public VectorD q(int column){
+        if (column < 0 || column >= k) throw new IndexOutOfBoundsException("no column " + column);
+        return new VectorD(q[column]);
+    }
+
+    /**
+     * @return all the orthonormal vectors, the columns of Q
+     */
+    public VectorD[] basis(){
+        VectorD[] result = new VectorD[k];
+        for (int j = 0; j < k; j++) result[j] = new VectorD(q[j]);
+        return result;
+    }
+
+    // block by block: the block projected off the columns before it, then orthonormalized inside
+    private void factor() {
+        for (int j0 = 0; j0 < k; j0 += BLOCK) {
+            int j0Final = j0, j1 = Math.min(k, j0 + BLOCK);
+            // the squares of the norms of the block before it is projected, and as it is projected
+            double[] original = new double[j1 - j0], square = new double[j1 - j0];
+            for (int j = j0; j < j1; j++) original[j - j0] = square[j - j0] = dot(q[j], q[j]);
+
+            IntConsumer before = j -> square[j - j0Final] = project(j, 0, j0Final, square[j - j0Final]);
+            if ((long) (j1 - j0) * j0 * m < PARALLEL_WORK) for (int j = j0; j < j1; j++) before.accept(j);
+            else ForkJoinPool.commonPool().invoke(new Columns(j0, j1, before));
+            for (int j = j0; j < j1; j++) normalize(j, project(j, j0, j, square[j - j0]), original[j - j0]);
+        }
+    }
+
+    // project column j off the columns of Q from i0 to i1, again if its norm drops too much
+    // before: the square of its norm now, return the square of its norm afterwards
+    private double project(int j, int i0, int i1, double before) {
+        double[] v = q[j];
+        if (i0 == i1) return before;
+        double after = pass(v, j, i0, i1);
+        if (after < before / 2) after = pass(v, j, i0, i1);
+        return after;
+    }
+
+    // one pass of modified Gram-Schmidt, adding the projections to R
+    private double pass(double[] v, int j, int i0, int i1) {
+        for (int i = i0; i < i1; i++) {
+            double[] qi = q[i];
+            double rij = dot(qi, v);
+            r[i][j] += rij;
+            for (int l = 0; l < m; l++) v[l] -= rij * qi[l];
+        }
+        return dot(v, v);
+    }
+
+    // divide column j by its norm, from the square kept
+    private void normalize(int j, double square, double original) {
+        if (!(square > DEPENDENT * DEPENDENT * original)) throw new ArithmeticException("the vectors are linearly dependent, vector " + j + " is a combination of the ones before it");
+        double norm = Math.sqrt(square);
+        r[j][j] = norm;
+        double[] v = q[j];
+        for (int l = 0; l < m; l++) v[l] /= norm;
+    }
+
+    // dot product, with 4 partial sums, so the additions do not wait on each other
+    private static double dot(double[] x, double[] y) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int n = x.length, i = 0;
+        for (; i + 3 < n; i += 4) {
+            s0 += x[i] * y[i];
+            s1 += x[i + 1] * y[i + 1];
+            s2 += x[i + 2] * y[i + 2];
+            s3 += x[i + 3] * y[i + 3];
+        }
+        for (; i < n; i++) s0 += x[i] * y[i];
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    // columns from j0 to j1, split in halves down to one
+    private static final class Columns extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int j0, j1;
+        private final IntConsumer action;
+
+        Columns(int j0, int j1, IntConsumer action) {
+            this.j0 = j0;
+            this.j1 = j1;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (j1 - j0 == 1) {
+                action.accept(j0);
+                return;
+            }
+            int middle = (j0 + j1) >>> 1;
+            invokeAll(new Columns(j0, middle, action), new Columns(middle, j1, action));
+        }
+    }
+
+    // test client
+    public static void main(String[] args) {
+        GramSchmidtD a = new GramSchmidtD(new MatrixD(new double[][]{{12, -51, 4}, {6, 167, -68}, {-4, 24, -41}}));
+        System.out.println(a.Q());
+        System.out.println(a.R());
+        System.out.println(a.Q().time(a.R()));
+        System.out.println(a.q(0).dot(a.q(1)) + " " + a.q(1).mag());
+    }
+}
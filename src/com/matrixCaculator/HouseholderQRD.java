@@ -0,0 +1,276 @@
+package com.matrixCaculator;
+
+import com.vectorCalculation.VectorD;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * the QR factorization A = Q R of a matrix of doubles with at least as many rows as columns, by Householder reflections
+ * <p>it solves overdetermined systems in the least-squares sense without the normal equations Aᵀ A x = Aᵀ b,
+ * whose condition number is the square of that of A
+ * <p>the columns are factored in blocks: the reflections of a block are gathered as Q = I - V T Vᵀ (the compact WY form),
+ * so each column after the block is updated with 2 products by V and one by T rather than one reflection at a time,
+ * and the columns are updated in parallel
+ * <p>the reflections are kept, so one factorization solves any number of right-hand sides
+ */
+public class HouseholderQRD {
+
+    // number of columns in a block
+    private static final int BLOCK = 32;
+
+    // below this many multiplications to update the columns after a block, update them sequentially
+    private static final long PARALLEL_WORK = 1L << 16;
+
+    // number of columns a task updates without splitting
+    private static final int COLUMNS = 4;
+
+    // rows and columns
+    private final int m, n;
+
+    // column j of the factored matrix at a[j]: R on and above the diagonal,
+    // and below it the Householder vector of column j, whose entry on the diagonal is 1 and not stored
+    private final double[][] a;
+
+    // tau of the reflection of each column, 0 for none
+    private final double[] tau;
+
+    // T of each block, upper triangular, block b for the columns from b * BLOCK
+    private final double[][][] t;
+
+    // constructor
+    /**factor a matrix
+     * @param matrix the matrix of coefficients, not augmented, with at least as many rows as columns, which is not changed
+     */
+    public HouseholderQRD(MatrixD matrix) {
+        if (matrix == null) throw new NullPointerException("matrix cannot be null");
+        m = matrix.ro();
+        n = matrix.co();
+        if (m < n) throw new IllegalArgumentException("the matrix must have at least as many rows as columns");
+        double[][] ma = matrix.toArray();
+        a = new double[n][m];
+        for (int i = 0; i < m; i++) for (int j = 0; j < n; j++) a[j][i] = ma[i][j];
+        tau = new double[n];
+        t = new double[(n + BLOCK - 1) / BLOCK][][];
+        factor();
+    }
+
+    // size
+    /**
+     * @return number of rows of the matrix
+     */
+    public int ro(){
+        return m;
+    }
+
+    /**
+     * @return number of columns of the matrix
+     */
+    public int co(){
+        return n;
+    }
+
+    // factors
+    /**
+     * @return R as a new n by n upper triangular matrix
+     */
+    public MatrixD R(){
+        double[][] result = new double[n][n];
+        for (int j = 0; j < n; j++) for (int i = 0; i <= j; i++) result[i][j] = a[j][i];
+        return new MatrixD(result);
+    }
+
+    /**
+     * @return the first n columns of Q as a new m by n matrix with orthonormal columns, such that A = Q R
+     */
+    public MatrixD Q(){
+        double[][] result = new double[m][n];
+        double[] column = new double[m];
+        for (int j = 0; j < n; j++) {
+            Arrays.fill(column, 0);
+            column[j] = 1;
+            for (int b = t.length - 1; b >= 0; b--) apply(b, column, false);
+            for (int i = 0; i < m; i++) result[i][j] = column[i];
+        }
+        return new MatrixD(result);
+    }
+
+    // solve
+    /**find the x minimizing the length of A x - b, which solves A x = b when it has a solution
+     * @param b the constants, of dimension the rows of the matrix
+     * @return the least-squares solution x
+     * @throws ArithmeticException if the columns of the matrix are linearly dependent, so there is no single such x
+     */
+    public VectorD leastSquares(VectorD b){
+        if (b == null) throw new IllegalArgumentException("the vector of constants must not be null");
+        if (b.dim() != m) throw new IllegalArgumentException("the number of dimensions of the vector must equal to the number of rows of the matrix");
+        double[] y = b.toArray().clone();
+
+        // Qᵀ b
+        for (int block = 0; block < t.length; block++) apply(block, y, true);
+
+        // R x = the first n entries of Qᵀ b
+        double largest = 0;
+        for (int j = 0; j < n; j++) largest = Math.max(largest, Math.abs(a[j][j]));
+        double tolerance = largest * Math.max(m, n) * Math.ulp(1.0);
+        double[] x = new double[n];
+        for (int i = n - 1; i >= 0; i--) {
+            if (!(Math.abs(a[i][i]) > tolerance)) throw new ArithmeticException("the columns of the matrix are linearly dependent");
+            double sum = y[i];
+            for (int j = i + 1; j < n; j++) sum -= a[j][i] * x[j];
+            x[i] = sum / a[i][i];
+        }
+        return new VectorD(x);
+    }
+
+    // factor block by block
+    private void factor() {
+        for (int block = 0; block < t.length; block++) {
+            int j0 = block * BLOCK, j1 = Math.min(n, j0 + BLOCK);
+            panel(j0, j1);
+            t[block] = triangle(j0, j1);
+
+            // the columns after the block, Qᵀ of the block applied to each
+            long work = 2L * (j1 - j0) * (m - j0) * (n - j1);
+            if (work < PARALLEL_WORK) for (int c = j1; c < n; c++) apply(block, a[c], true);
+            else ForkJoinPool.commonPool().invoke(new Columns(block, j1, n));
+        }
+    }
+
+    // factor the columns from j0 to j1 one reflection at a time, only updating the columns of the block
+    private void panel(int j0, int j1) {
+        for (int j = j0; j < j1; j++) {
+            double tauj = reflect(j);
+            if (tauj == 0) continue;
+            double[] v = a[j];
+            for (int c = j + 1; c < j1; c++) {
+                double[] column = a[c];
+                double w = column[j];
+                for (int i = j + 1; i < m; i++) w += v[i] * column[i];
+                w *= tauj;
+                column[j] -= w;
+                for (int i = j + 1; i < m; i++) column[i] -= w * v[i];
+            }
+        }
+    }
+
+    // turn column j, from the diagonal down, into the reflection H = I - tau v vᵀ sending it to (beta, 0, ..., 0)
+    // keep beta on the diagonal and v below it, and return tau, 0 when there is nothing to reflect
+    private double reflect(int j) {
+        double[] x = a[j];
+        double alpha = x[j], sigma = 0;
+        for (int i = j + 1; i < m; i++) sigma += x[i] * x[i];
+        if (sigma == 0) {
+            tau[j] = 0;
+            return 0;
+        }
+        double beta = -Math.copySign(Math.sqrt(alpha * alpha + sigma), alpha);
+        double scale = 1 / (alpha - beta);
+        for (int i = j + 1; i < m; i++) x[i] *= scale;
+        x[j] = beta;
+        tau[j] = (beta - alpha) / beta;
+        return tau[j];
+    }
+
+    // T of the block from j0 to j1, such that H(j0) ... H(j1 - 1) = I - V T Vᵀ
+    private double[][] triangle(int j0, int j1) {
+        int b = j1 - j0;
+        double[][] result = new double[b][b];
+        double[] product = new double[b];
+        for (int i = 0; i < b; i++) {
+            double taui = tau[j0 + i];
+            result[i][i] = taui;
+            if (taui == 0) continue;
+            // Vᵀ v of column i, for the columns before it, where v is 0 above its diagonal and 1 on it
+            double[] vi = a[j0 + i];
+            for (int l = 0; l < i; l++) {
+                double[] vl = a[j0 + l];
+                double sum = vl[j0 + i];
+                for (int r = j0 + i + 1; r < m; r++) sum += vl[r] * vi[r];
+                product[l] = sum;
+            }
+            // -tau T Vᵀ v
+            for (int l = 0; l < i; l++) {
+                double sum = 0;
+                for (int p = l; p < i; p++) sum += result[l][p] * product[p];
+                result[l][i] = -taui * sum;
+            }
+        }
+        return result;
+    }
+
+    // apply Qᵀ of a block to a column (transpose) or its Q, as I - V Tᵀ Vᵀ or I - V T Vᵀ
+    private void apply(int block, double[] column, boolean transpose) {
+        int j0 = block * BLOCK;
+        double[][] tb = t[block];
+        int b = tb.length;
+        double[] w = new double[b];
+
+        // Vᵀ c
+        for (int l = 0; l < b; l++) {
+            double[] v = a[j0 + l];
+            double sum = column[j0 + l];
+            for (int r = j0 + l + 1; r < m; r++) sum += v[r] * column[r];
+            w[l] = sum;
+        }
+
+        // Tᵀ w from the last entry, T w from the first, each entry only reading those not yet replaced
+        if (transpose) {
+            for (int i = b - 1; i >= 0; i--) {
+                double sum = 0;
+                for (int l = 0; l <= i; l++) sum += tb[l][i] * w[l];
+                w[i] = sum;
+            }
+        } else {
+            for (int i = 0; i < b; i++) {
+                double sum = 0;
+                for (int l = i; l < b; l++) sum += tb[i][l] * w[l];
+                w[i] = sum;
+            }
+        }
+
+        // c - V w
+        for (int l = 0; l < b; l++) {
+            double[] v = a[j0 + l];
+            double wl = w[l];
+            if (wl == 0) continue;
+            column[j0 + l] -= wl;
+            for (int r = j0 + l + 1; r < m; r++) column[r] -= wl * v[r];
+        }
+    }
+
+    // columns from c0 to c1 updated by a block, split in halves until small
+    private final class Columns extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int block, c0, c1;
+
+        Columns(int block, int c0, int c1) {
+            this.block = block;
+            this.c0 = c0;
+            this.c1 = c1;
+        }
+
+        @Override
+        protected void compute() {
+            if (c1 - c0 <= COLUMNS) {
+                for (int c = c0; c < c1; c++) apply(block, a[c], true);
+                return;
+            }
+            int middle = (c0 + c1) >>> 1;
+            invokeAll(new Columns(block, c0, middle), new Columns(block, middle, c1));
+        }
+    }
+
+    // test client
+    public static void main(String[] args) {
+        // fit a line through 4 points
+        HouseholderQRD a = new HouseholderQRD(new MatrixD(new double[][]{{1, 1}, {1, 2}, {1, 3}, {1, 4}}));
+        System.out.println(a.R());
+        System.out.println(a.Q());
+        System.out.println(a.Q().time(a.R()));
+        System.out.println(a.leastSquares(new VectorD(new double[]{6, 5, 7, 10})));
+        System.out.println(a.leastSquares(new VectorD(new double[]{3, 5, 7, 9})));
+    }
+}
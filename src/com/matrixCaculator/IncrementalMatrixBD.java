@@ -0,0 +1,333 @@
+package com.matrixCaculator;
+
+import com.vectorCalculation.VectorBD;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * a big decimal matrix kept in reduced echelon form while rows and columns are appended
+ * <p>like {@link MatrixBD}, the last column holds the constants; a new row is only reduced against the current pivots,
+ * and a new column is a new variable inserted just before the constants, so each change costs O(n²) instead of a new {@link MatrixBD#RREF()}
+ * <p>the arithmetic is the same as in {@link MatrixBD#RREF()}: pivots are made 1 with {@link MathContext#DECIMAL128},
+ * and each product is rounded like its forward phase, so repeated updates do not grow the digits
+ */
+public class IncrementalMatrixBD {
+
+    // row and column
+    private int ro, co;
+
+    // for the big decimal calculation, we need a math context
+    private final MathContext mc = MathContext.DECIMAL128;
+
+    // store the pivot rows, in the order of their pivot columns
+    // store the rows without pivot, either 0s or only a nonzero constant
+    private final ArrayList<Row> piR = new ArrayList<>(), restR = new ArrayList<>();
+
+    // store RREF
+    // store solution
+    private BigDecimal[][] rref = null, sol = null;
+
+    // store RREF pivots
+    // store free variables
+    private final ArrayList<Integer> piC = new ArrayList<>(), freeC = new ArrayList<>();
+
+    // one row of the system:
+    // va is the row itself and tr the combination of the rows appended that gives it, so new columns can be reduced
+    private static final class Row {
+        BigDecimal[] va, tr;
+        int pivot = -1;
+
+        Row(BigDecimal[] va, BigDecimal[] tr) {
+            this.va = va;
+            this.tr = tr;
+        }
+    }
+
+    // constructor
+    /**create a system with no rows yet
+     * @param columns number of columns, including the column of constants
+     */
+    public IncrementalMatrixBD(int columns) {
+        if (columns <= 0) throw new IllegalArgumentException("the number of columns must be greater than 0");
+        co = columns;
+    }
+
+    /**create a system with all the rows of a matrix
+     * @param matrix the matrix to start from, the last column being the constants
+     */
+    public IncrementalMatrixBD(MatrixBD matrix) {
+        this(matrix.co());
+        for (BigDecimal[] row : matrix.toArray()) addRow(row);
+    }
+
+    // column
+    /**
+     * @return number of columns of this matrix
+     */
+    public int co(){
+        return co;
+    }
+
+    // row
+    /**
+     * @return number of rows of this matrix
+     */
+    public int ro(){
+        return ro;
+    }
+
+    // add a row
+    /**append an equation, reducing it against the current pivots only
+     * @param row all entries of the new row, the last one being the constant
+     * @return whether the system still has a solution
+     */
+    public boolean addRow(BigDecimal[] row){
+        if (row == null) throw new IllegalArgumentException("the row must not be null");
+        if (row.length != co) throw new IllegalArgumentException("the length of the row must equal to the number of columns");
+
+        // copy the row, and record it as the new original row
+        BigDecimal[] tr = new BigDecimal[ro + 1];
+        Arrays.fill(tr, BigDecimal.ZERO);
+        tr[ro] = BigDecimal.ONE;
+        Row newRow = new Row(Arrays.copyOf(row, co), tr);
+        ro++;
+
+        // reduce it against every current pivot
+        for (Row pivotRow : piR) eliminate(newRow, pivotRow);
+
+        // it becomes a pivot row if anything but the constant is left
+        place(newRow);
+        return consistent();
+    }
+
+    /**append an equation, reducing it against the current pivots only
+     * @param row the new row, the last entry being the constant
+     * @return whether the system still has a solution
+     */
+    public boolean addRow(VectorBD row){
+        return addRow(row.toArray());
+    }
+
+    // add a column
+    /**append a variable, as a new column just before the column of constants
+     * @param column the coefficients of the new variable in every row, in the order the rows were added
+     * @return whether the system has a solution
+     */
+    public boolean addColumn(BigDecimal[] column){
+        if (column == null) throw new IllegalArgumentException("the column must not be null");
+        if (column.length != ro) throw new IllegalArgumentException("the length of the column must equal to the number of rows");
+
+        // apply to the new column the same combinations that gave each row, then insert it before the constants
+        ArrayList<Row> all = new ArrayList<>(piR);
+        all.addAll(restR);
+        for (Row row : all) {
+            BigDecimal value = BigDecimal.ZERO;
+            for (int i = 0; i < row.tr.length; i++) {
+                if (row.tr[i].signum() != 0) value = value.add(column[i].multiply(row.tr[i]));
+            }
+            BigDecimal[] va = Arrays.copyOf(row.va, co + 1);
+            va[co] = va[co - 1];
+            va[co - 1] = value.round(mc).stripTrailingZeros();
+            row.va = va;
+        }
+        co++;
+
+        // a row without pivot having the new variable gets its pivot there, which is right of every other pivot
+        Row pivotRow = null;
+        for (Row row : restR) {
+            if (row.va[co - 2].signum() != 0) {
+                pivotRow = row;
+                break;
+            }
+        }
+        if (pivotRow != null) {
+            restR.remove(pivotRow);
+            pivot(pivotRow, co - 2);
+            for (Row row : piR) eliminate(row, pivotRow);
+            for (Row row : restR) eliminate(row, pivotRow);
+            piR.add(pivotRow);
+        }
+        changed();
+        return consistent();
+    }
+
+    // consistency
+    /**
+     * @return whether the system has a solution
+     */
+    public boolean consistent(){
+        for (Row row : restR) if (row.va[co - 1].signum() != 0) return false;
+        return true;
+    }
+
+    // rank
+    /**
+     * @return number of pivots in the reduced echelon form, counting a pivot in the last column of an inconsistent system
+     */
+    public int rank(){
+        return piR.size() + (consistent() ? 0 : 1);
+    }
+
+    // simplify the matrix to reduced echelon form
+    /**generate the reduced (row) echelon form of this matrix, the same as {@link MatrixBD#RREF()} of all the rows added
+     * @return the reduced (row) echelon form of this matrix
+     */
+    public MatrixBD RREF(){
+        if (ro == 0) throw new IllegalStateException("there is no row yet");
+        reduce();
+        return new MatrixBD(rref);
+    }
+
+    // give out the free variables
+    public Integer[] freeVar(){
+        reduce();
+        return freeC.toArray(new Integer[0]);
+    }
+
+    // solve the matrix
+    /**generate all the solutions of the matrix, in the same form as {@link MatrixBD#sol()}
+     * @return all the solutions of the matrix, null if no solution
+     */
+    public VectorBD[] sol(){
+        reduce();
+        if (!consistent()) return null;
+
+        if (sol == null) {
+            // map each free column to its index among the free variables
+            int[] freeIndex = new int[co];
+            Arrays.fill(freeIndex, -1);
+            for (int i = 0; i < freeC.size(); i++) freeIndex[freeC.get(i)] = i;
+
+            // initialize the array of 0s, with the free variables' own places 1
+            BigDecimal[][] result = new BigDecimal[freeC.size() + 1][co - 1];
+            for (BigDecimal[] row : result) Arrays.fill(row, BigDecimal.ZERO);
+            for (int i = 0; i < freeC.size(); i++) result[i + 1][freeC.get(i)] = BigDecimal.ONE;
+
+            // in reduced echelon form, each pivot variable only depends on the constant and the free variables
+            for (int piNow = 0; piNow < piC.size(); piNow++) {
+                int pC = piC.get(piNow);
+                result[0][pC] = rref[piNow][co - 1];
+                for (int iC = pC + 1; iC < co - 1; iC++) {
+                    if (freeIndex[iC] >= 0) result[freeIndex[iC] + 1][pC] = rref[piNow][iC].negate();
+                }
+            }
+            sol = result;
+        }
+
+        VectorBD[] result = new VectorBD[sol.length];
+        for (int i = 0; i < sol.length; i++) result[i] = new VectorBD(sol[i]);
+        return result;
+    }
+
+    // to string
+    public String toString() {
+        return ro == 0 ? "[]" : RREF().toString();
+    }
+
+    // put a reduced row among the pivot rows, or among the rest
+    private void place(Row newRow){
+        int pC = 0;
+        while (pC < co - 1 && newRow.va[pC].signum() == 0) pC++;
+        if (pC == co - 1) {
+            restR.add(newRow);
+        } else {
+            // eliminate the new pivot column from the other rows
+            pivot(newRow, pC);
+            for (Row row : piR) eliminate(row, newRow);
+            for (Row row : restR) eliminate(row, newRow);
+
+            // keep the pivot rows in the order of their pivot columns
+            int index = 0;
+            while (index < piR.size() && piR.get(index).pivot < pC) index++;
+            piR.add(index, newRow);
+        }
+        changed();
+    }
+
+    // make the entry in column pC 1
+    private void pivot(Row row, int pC){
+        BigDecimal tempDec = row.va[pC];
+        for (int j = 0; j < co; j++) row.va[j] = row.va[j].divide(tempDec, mc).stripTrailingZeros();
+        for (int i = 0; i < row.tr.length; i++) row.tr[i] = row.tr[i].divide(tempDec, mc).stripTrailingZeros();
+        row.pivot = pC;
+    }
+
+    // subtract pivotRow from row to cancel the pivot column
+    private void eliminate(Row row, Row pivotRow){
+        BigDecimal tempDec = row.va[pivotRow.pivot];
+        if (tempDec.signum() == 0) return;
+
+        for (int j = 0; j < co; j++) {
+            if (pivotRow.va[j].signum() != 0) row.va[j] = row.va[j].subtract(product(pivotRow.va[j], tempDec)).stripTrailingZeros();
+        }
+        if (row.tr.length < pivotRow.tr.length) {
+            int length = row.tr.length;
+            row.tr = Arrays.copyOf(row.tr, pivotRow.tr.length);
+            Arrays.fill(row.tr, length, row.tr.length, BigDecimal.ZERO);
+        }
+        for (int i = 0; i < pivotRow.tr.length; i++) {
+            if (pivotRow.tr[i].signum() != 0) row.tr[i] = row.tr[i].subtract(product(pivotRow.tr[i], tempDec)).stripTrailingZeros();
+        }
+    }
+
+    private static BigDecimal product(BigDecimal a, BigDecimal b){
+        return a.multiply(b).setScale(33, RoundingMode.HALF_UP);
+    }
+
+    // drop the results read before
+    private void changed(){
+        rref = null;
+        sol = null;
+    }
+
+    // read the reduced echelon form
+    private void reduce(){
+        if (rref != null) return;
+        piC.clear();
+        freeC.clear();
+        rref = new BigDecimal[ro][co];
+        int topR = 0;
+        for (Row row : piR) {
+            System.arraycopy(row.va, 0, rref[topR], 0, co);
+            piC.add(row.pivot);
+            topR++;
+        }
+
+        // an inconsistent system has one more pivot, in the column of constants
+        if (!consistent()) {
+            for (int i = 0; i < topR; i++) rref[i][co - 1] = BigDecimal.ZERO;
+            Arrays.fill(rref[topR], BigDecimal.ZERO);
+            rref[topR][co - 1] = BigDecimal.ONE;
+            piC.add(co - 1);
+            topR++;
+        }
+        for (; topR < ro; topR++) Arrays.fill(rref[topR], BigDecimal.ZERO);
+
+        for (int iC = 0, piNow = 0; iC < co - 1; iC++) {
+            if (piNow < piR.size() && piR.get(piNow).pivot == iC) piNow++;
+            else freeC.add(iC);
+        }
+    }
+
+    // test client
+    public static void main(String[] args) {
+        IncrementalMatrixBD b = new IncrementalMatrixBD(6);
+        System.out.println(b.addRow(new VectorBD(new int[]{0,0,2,-8,-1,3})));
+        System.out.println(b.addRow(new VectorBD(new int[]{1,6,2,-5,-2,-4})));
+        System.out.println(b.addRow(new VectorBD(new int[]{0,0,0,0,1,7})));
+
+        System.out.println(b.RREF());
+        System.out.println(Arrays.toString(b.freeVar()));
+        System.out.println(Arrays.toString(b.sol()));
+
+        System.out.println(b.addRow(new VectorBD(new int[]{0,0,0,0,2,13})));
+        System.out.println(b.sol() == null);
+        System.out.println(b.addColumn(new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ONE}));
+        System.out.println(b.RREF());
+        System.out.println(Arrays.toString(b.freeVar()));
+    }
+}
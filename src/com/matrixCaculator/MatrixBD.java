@@ -3,12 +3,21 @@ package com.matrixCaculator;
 import com.testClient.readArray;
 import com.vectorCalculation.VectorBD;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.MathContext;
-import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Objects;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 
 public class MatrixBD {
 
@@ -21,14 +30,37 @@ public class MatrixBD {
     // store with array
     private final BigDecimal[][] ma;
 
+    // store compactly instead, when ma is null
+    private CompactBD compactMa = null;
+
     // store RREF
     // store solution
     private BigDecimal[][] rref = null, sol = null;
 
+    // store RREF compactly instead, for a compact matrix
+    private CompactBD compactRref = null;
+
     // store RREF pivots
     // store free variables
     private final ArrayList<Integer> piC = new ArrayList<>(), freeC = new ArrayList<>();
 
+    // store the structure of the coefficients
+    // store the path sol() takes
+    private MatrixStructure structure = null;
+    private MatrixStructure.Path path = null;
+
+    // store the solutions as a null space, built from sol() when needed
+    private NullSpaceBD nullSpace = null;
+
+    // store the repeated squares of the matrix, A^(2^i) at index i, for pow() and powTimes()
+    // with the math context they are rounded to, null if exact
+    private final ArrayList<BigDecimal[][]> squares = new ArrayList<>();
+    private MathContext squaresMc = null;
+
+    // store the content hash, computed once, 0 until then
+    // one int, written once, so a thread sees either 0 and computes it again or the whole hash, as with String
+    private int hash = 0;
+
     // create scanner
     private static Scanner sc = new Scanner(System.in);
 
@@ -52,7 +84,7 @@ public class MatrixBD {
         co = matrixArray[0].length;
         ma = new BigDecimal[ro][co];
         for (int i = 0; i < ro; i++) {
-            for (int j = 0; j < co; j++) ma[i][j] = new BigDecimal(matrixArray[i][j]);
+            for (int j = 0; j < co; j++) ma[i][j] = CompactBD.canonical(new BigDecimal(matrixArray[i][j]));
         }
     }
     /**create a matrix based on 2D array
@@ -64,7 +96,7 @@ public class MatrixBD {
         co = matrixArray[0].length;
         ma = new BigDecimal[ro][co];
         for (int i = 0; i < ro; i++) {
-            for (int j = 0; j < co; j++) ma[i][j] = BigDecimal.valueOf(matrixArray[i][j]);
+            for (int j = 0; j < co; j++) ma[i][j] = CompactBD.canonical(BigDecimal.valueOf(matrixArray[i][j]));
         }
     }
     /**create a matrix based on 2D array
@@ -76,7 +108,7 @@ public class MatrixBD {
         co = matrixArray[0].length;
         ma = new BigDecimal[ro][co];
         for (int i = 0; i < ro; i++) {
-            for (int j = 0; j < co; j++) ma[i][j] = BigDecimal.valueOf(matrixArray[i][j]);
+            for (int j = 0; j < co; j++) ma[i][j] = CompactBD.canonical(BigDecimal.valueOf(matrixArray[i][j]));
         }
     }
     /**create a matrix based on 2D array
@@ -92,6 +124,24 @@ public class MatrixBD {
         }
     }
 
+    // wrap compact storage, which is never changed so it can be shared
+    MatrixBD(CompactBD compactArray) {
+        this(null, compactArray);
+    }
+
+    // take over either an array (ma) or compact storage (compactMa) without copying it, the other null
+    private MatrixBD(BigDecimal[][] ma, CompactBD compactMa) {
+        ro = ma != null ? ma.length : compactMa.ro;
+        co = ma != null ? ma[0].length : compactMa.co;
+        this.ma = ma;
+        this.compactMa = compactMa;
+    }
+
+    // wrap an array already owned by this class without copying it
+    private static MatrixBD wrap(BigDecimal[][] ownedArray) {
+        return new MatrixBD(ownedArray, null);
+    }
+
     /**construct a matrix of 1 column from a column vector
      * @param columnVector the column vector to transform
      */
@@ -121,10 +171,48 @@ public class MatrixBD {
 
     // to array
     /**
-     * @return a 2D array corresponding to this matrix
+     * @return a 2D array corresponding to this matrix, a new one for a compact matrix
      */
     public BigDecimal[][] toArray(){
-        return ma;
+        return ma != null ? ma : compactMa.expand();
+    }
+
+    // entry (i, j), from whichever storage is used
+    BigDecimal entry(int i, int j){
+        return ma != null ? ma[i][j] : compactMa.get(i, j);
+    }
+
+    // compact storage
+    /**a copy of this matrix stored compactly, for matrices that are mostly 0s and small integers
+     * <p>0s take one bit, small integers share their instances and only the nonzero entries are stored,
+     * which also goes for the reduced echelon form it keeps; operations needing all entries unpack them for their duration
+     * <p>0s of any scale are stored as 0
+     * @return a compact copy of this matrix, with the results already calculated, or this matrix if it is compact
+     */
+    public MatrixBD compact(){
+        if (compactMa != null) return this;
+        MatrixBD result = new MatrixBD(new CompactBD(ma));
+        synchronized (this) {
+            if (rref != null) {
+                result.piC.addAll(piC);
+                result.freeC.addAll(freeC);
+                result.compactRref = new CompactBD(rref);
+                result.sol = sol;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return whether this matrix is stored compactly, see {@link #compact()}
+     */
+    public boolean isCompact(){
+        return compactMa != null;
+    }
+
+    // the compact storage, null when stored as an array
+    CompactBD compactArray(){
+        return compactMa;
     }
 
     // extract column vector
@@ -135,7 +223,7 @@ public class MatrixBD {
     public VectorBD vec(int columnIndex){
         BigDecimal[] result = new BigDecimal[ro];
         for(int i = 0; i < ro; i++) {
-            result[i] = ma[i][columnIndex];
+            result[i] = entry(i, columnIndex);
         }
         return new VectorBD(result);
     }
@@ -147,20 +235,106 @@ public class MatrixBD {
      */
     public VectorBD time(VectorBD that){
         if(co != that.dim()) throw new IllegalArgumentException("the number of columns of the matrix must equal to the number of dimensions of the vector");
+        EliminationStats.Counter count = EliminationStats.enabled() ? new EliminationStats.Counter(EliminationStats.Phase.TIME, ro, co) : null;
+        if (count != null) count.start();
         BigDecimal[] result = new BigDecimal[ro];
         BigDecimal[] ve = that.toArray();
         for (int i = 0; i < ro; i++) {
             result[i] = BigDecimal.ZERO;
             for(int j = 0; j < co; j++) {
-                result[i] = result[i].add(ma[i][j].multiply(ve[j]));
+                result[i] = result[i].add(entry(i, j).multiply(ve[j]));
             }
         }
+        if (count != null) {
+            count.stop();
+            count.multiplies = (long) ro * co;
+            count.finish();
+        }
         return new VectorBD(result);
     }
 
+    // multiply by matrix
+    /** multiply the matrix by a matrix with rows equal to the columns of this matrix
+     * <p>when all dimensions are above {@link #strassenCutoff()}, the product is computed with the Strassen-Winograd recursion,
+     * which trades big decimal multiplications for cheaper additions and runs its sub-products in parallel
+     * <p>the product is exact, so the result is the same whichever way it is computed
+     * @param that the matrix to multiply
+     * @return a new matrix gained by multiplying the two matrices
+     */
+    public MatrixBD time(MatrixBD that){
+        if (that == null) throw new IllegalArgumentException("the matrix to multiply must not be null");
+        if (co != that.ro) throw new IllegalArgumentException("the number of columns of this matrix must equal to the number of rows of that matrix");
+        if (!EliminationStats.enabled()) return wrap(MultiplyBD.multiply(toArray(), that.toArray(), null));
+
+        EliminationStats.Counter count = new EliminationStats.Counter(EliminationStats.Phase.TIME, ro, that.co);
+        LongAdder multiplications = new LongAdder();
+        count.start();
+        MatrixBD result = wrap(MultiplyBD.multiply(toArray(), that.toArray(), multiplications));
+        count.stop();
+        count.multiplies = multiplications.sum();
+        count.finish();
+        return result;
+    }
+
+    /**
+     * @return the size below which matrix multiplication uses the classic algorithm instead of the Strassen-Winograd recursion
+     */
+    public static int strassenCutoff() {
+        return MultiplyBD.cutoff();
+    }
+
+    /**set the size below which matrix multiplication uses the classic algorithm instead of the Strassen-Winograd recursion
+     * @param cutoff the new cutoff, at least 1
+     */
+    public static void setStrassenCutoff(int cutoff) {
+        MultiplyBD.setCutoff(cutoff);
+    }
+
     // to string
     public String toString() {
-        return Arrays.deepToString(ma);
+        return Arrays.deepToString(toArray());
+    }
+
+    // equality
+    /**two matrices are equal when they have the same size and entries of the same value, ignoring the scale (2.0 equals 2)
+     * @param o the object to compare with
+     * @return whether o is a matrix equal to this one
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MatrixBD)) return false;
+        MatrixBD that = (MatrixBD) o;
+        if (ro != that.ro || co != that.co || hashCode() != that.hashCode()) return false;
+        for (int i = 0; i < ro; i++) {
+            for (int j = 0; j < co; j++) {
+                if (entry(i, j).compareTo(that.entry(i, j)) != 0) return false;
+            }
+        }
+        return true;
+    }
+
+    // hash code
+    /**a hash of the size and the values of the entries, consistent with {@link #equals(Object)}
+     * <p>it is computed once, so the array from {@link #toArray()} must not be changed afterwards
+     * @return the hash code of this matrix
+     */
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            result = 31 * ro + co;
+            for (int i = 0; i < ro; i++) {
+                for (int j = 0; j < co; j++) {
+                    BigDecimal value = entry(i, j);
+                    result = 31 * result + (value.signum() == 0 ? 0 : value.stripTrailingZeros().hashCode());
+                }
+            }
+            // 0 marks the hash as not computed, so a matrix hashing to 0 takes 1 instead
+            if (result == 0) result = 1;
+            hash = result;
+        }
+        return result;
     }
 
     // simplify the matrix to reduced echelon form
@@ -169,102 +343,152 @@ public class MatrixBD {
      * @return the reduced (row) echelon form of this matrix
      */
     public MatrixBD RREF(){
-        // check if rref is already calculated
-        if (rref != null) return new MatrixBD(rref);
+        reduce(null);
+        return rrefMatrix();
+    }
 
-        // copy ma as rref
-        rref = new BigDecimal[ro][co];
-        for (int i = 0; i < ro; i++) System.arraycopy(ma[i], 0, rref[i], 0, co);
+    /**generate the reduced (row) echelon form of this matrix on an executor
+     * <p>cancelling the future stops the elimination at the next pivot; the matrix keeps no partial result
+     * @param executor the executor to run the elimination on
+     * @return a future of the reduced (row) echelon form of this matrix
+     */
+    public CompletableFuture<MatrixBD> rrefAsync(Executor executor){
+        return async(executor, 0, null, this::rrefMatrix);
+    }
 
-        // assign variables
-        BigDecimal[] tempArray = new BigDecimal[co];
-        BigDecimal tempDec;
+    /**generate the reduced (row) echelon form of this matrix on an executor, giving up after a timeout
+     * <p>cancelling the future, or reaching the timeout, stops the elimination at the next pivot; the matrix keeps no partial result
+     * @param executor the executor to run the elimination on
+     * @param timeout how long to wait before giving up, counted from now
+     * @param unit the unit of timeout
+     * @return a future of the reduced (row) echelon form of this matrix, completed with a TimeoutException when giving up
+     */
+    public CompletableFuture<MatrixBD> rrefAsync(Executor executor, long timeout, TimeUnit unit){
+        return async(executor, timeout, unit, this::rrefMatrix);
+    }
 
-        // forward phase
+    /**generate the reduced (row) echelon form of this matrix like {@link #RREF()}, saving its progress to a file now and then
+     * <p>if the file holds the progress of an earlier run on this same matrix, the elimination picks up from there,
+     * and ends with the same result as if it had never stopped; the file is deleted once the elimination is done
+     * <p>the progress is written by a thread of its own, the elimination only pauses to copy the references to the entries;
+     * a save still being written when the next one is due puts that one off
+     * @param checkpoint the file to save the progress to, written through a temporary file next to it
+     * @param interval the time between two saves, 0 to save after every pivot
+     * @param unit the unit of interval
+     * @return the reduced (row) echelon form of this matrix
+     * @throws IOException if the file cannot be read, or the last save failed; the result is kept, so {@link #RREF()} gives it at once
+     * @throws IllegalArgumentException if the file holds the progress of another matrix
+     */
+    public MatrixBD RREF(Path checkpoint, long interval, TimeUnit unit) throws IOException {
+        if (checkpoint == null) throw new NullPointerException("checkpoint cannot be null");
+        if (unit == null) throw new NullPointerException("unit cannot be null");
+        if (interval < 0) throw new IllegalArgumentException("the interval must not be negative");
+        synchronized (this) {
+            if (rref != null || compactRref != null) return rrefMatrix();
+        }
 
-        // find pivots
-        // iC: the column being searched, from 0 to (co - 1)
-        // topR: the highest row still considered, from 0 to (ro - 1)
-        for (int iC = 0, topR = 0; iC < co; iC++) {
-            // no enough rows so the rest become free variables
-            if (topR >= ro) {
-                // it is a free variable if not a constant
-               if (iC < co - 1) freeC.add(iC);
-            }
+        byte[] digest = EliminationCheckpointBD.digest(this);
+        EliminationBD elimination = EliminationCheckpointBD.read(checkpoint, this, mc, digest);
+        if (elimination == null) elimination = elimination();
+        try (EliminationCheckpointBD saving = new EliminationCheckpointBD(checkpoint, elimination, digest, unit.toNanos(interval))) {
+            reduce(saving, elimination);
+            saving.finish();
+        }
+        Files.deleteIfExists(checkpoint);
+        return rrefMatrix();
+    }
 
-            // there are still rows to be searched
-            else {
-                // tR: current row scanning
-                for (int tR = topR; tR < ro; tR++) {
-                    // found nonzero entry, use it as a pivot
-                    if (rref[tR][iC].compareTo(BigDecimal.ZERO) != 0) {
-                        // swap it to the top
-                        System.arraycopy(rref[tR], 0, tempArray, 0, co);
-                        System.arraycopy(tempArray, 0, rref[topR], 0, co);
-
-                        // record it to the array list
-                        piC.add(iC);
-
-                        // make pivot 1
-                        tempDec = rref[topR][iC];
-
-                        for (int i = iC; i < co; i++) {
-                            rref[topR][i] = rref[topR][i].divide(tempDec, mc).stripTrailingZeros();
-                        }
-
-                        // check all entries below for nonzero entries and eliminate them
-                        for (int checkR = topR + 1; checkR < ro; checkR++) {
-                            // nonzero entries found
-                            if (rref[checkR][iC].compareTo(BigDecimal.ZERO) != 0) {
-                                // subtract all of them to cancel the entry
-                                tempDec = rref[checkR][iC];
-                                for (int i = iC; i < co; i++) {
-                                    rref[checkR][i] = rref[checkR][i].subtract(rref[topR][i].multiply(tempDec).setScale(33, RoundingMode.HALF_UP)).stripTrailingZeros();
-                                }
-                            }
-                        }
-
-                        // now all is done, another top row eliminated
-                        topR++;
-
-                        // stop looking for entries in this column
-                        break;
-                    }
+    /**generate all the solutions of the matrix on an executor, like {@link #sol()}
+     * <p>cancelling the future stops the elimination at the next pivot; the matrix keeps no partial result
+     * @param executor the executor to run the elimination on
+     * @return a future of all the solutions of the matrix, with null if no solution
+     */
+    public CompletableFuture<VectorBD[]> solveAsync(Executor executor){
+        return async(executor, 0, null, this::sol);
+    }
 
-                    // it is the last row, no nonzero entry in this column
-                    if (tR > ro - 2) {
-                        // not the last column, it is a free variable
-                        if (iC < co - 1) freeC.add(iC);
-                    }
-                }
+    /**generate all the solutions of the matrix on an executor like {@link #sol()}, giving up after a timeout
+     * <p>cancelling the future, or reaching the timeout, stops the elimination at the next pivot; the matrix keeps no partial result
+     * @param executor the executor to run the elimination on
+     * @param timeout how long to wait before giving up, counted from now
+     * @param unit the unit of timeout
+     * @return a future of all the solutions of the matrix, with null if no solution, completed with a TimeoutException when giving up
+     */
+    public CompletableFuture<VectorBD[]> solveAsync(Executor executor, long timeout, TimeUnit unit){
+        return async(executor, timeout, unit, this::sol);
+    }
+
+    // the reduced echelon form as a new matrix, compact for a compact matrix
+    private MatrixBD rrefMatrix(){
+        return compactRref != null ? new MatrixBD(compactRref) : new MatrixBD(rref);
+    }
+
+    // run the elimination on an executor, checking the future between pivots, then complete it with result
+    private <T> CompletableFuture<T> async(Executor executor, long timeout, TimeUnit unit, Supplier<T> result){
+        if (executor == null) throw new IllegalArgumentException("the executor must not be null");
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (unit != null) future.orTimeout(timeout, unit);
+        executor.execute(() -> {
+            try {
+                if (reduce(future::isDone)) future.complete(result.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
             }
-        }
+        });
+        return future;
+    }
 
-        // backward phase
+    // a new elimination of this matrix, of a copy of its array, or of the array a compact matrix expands to, which is already new
+    private EliminationBD elimination(){
+        return ma != null ? EliminationBD.start(ma, mc) : EliminationBD.resume(compactMa.expand(), mc);
+    }
 
-        // number of pivots
-        int pivot = piC.size();
+    // make sure rref, piC and freeC are calculated, unless stop says so first
+    // return whether they are calculated
+    private boolean reduce(BooleanSupplier stop){
+        return reduce(stop, null);
+    }
 
-        // check all pivots from the bottom one
-        // piNow: the pivot focused now, from (pivot - 1) to 1
-        // there is no point checking for pivot 0 as nothing is above it
-        // it is also the row index for sure
-        for (int piNow = pivot - 1; piNow > 0; piNow--) {
-            // check upwards one-by-one from the pivots and eliminate nonzero entries
-            // checkR: the row being checked
-            for (int checkR = piNow - 1; checkR >= 0; checkR--) {
-                // found nonzero entry
-                if (rref[checkR][piC.get(piNow)].compareTo(BigDecimal.ZERO) != 0) {
-                    tempDec = rref[checkR][piC.get(piNow)];
+    // the same, going on with an elimination already started unless it is null
+    private boolean reduce(BooleanSupplier stop, EliminationBD started){
+        synchronized (this) {
+            // check if rref is already calculated
+            if (rref != null || compactRref != null) return true;
+
+            // check if another matrix with the same entries was already eliminated
+            EliminationCacheBD.Entry cached = EliminationCacheBD.get(this);
+            if (cached != null && cached.reduced()) {
+                adopt(cached);
+                return true;
+            }
+        }
 
-                    // eliminate the entry, from piNow's column to the rightmost
-                    for(int i = piC.get(piNow); i < co; i++) {
-                        rref[checkR][i] = rref[checkR][i].subtract(rref[piNow][i].multiply(tempDec)).stripTrailingZeros();
-                    }
-                }
+        // eliminate a copy, so nothing is kept if stopped halfway
+        EliminationBD elimination = started != null ? started : elimination();
+        if (!elimination.run(stop)) return false;
+
+        synchronized (this) {
+            if (rref == null && compactRref == null) {
+                piC.addAll(elimination.piC);
+                freeC.addAll(elimination.freeC);
+                // most entries end up 0 or 1, share them
+                CompactBD.intern(elimination.rref);
+                if (compactMa != null) compactRref = new CompactBD(elimination.rref);
+                else rref = elimination.rref;
+                EliminationCacheBD.put(this, rref, compactRref, piC, freeC);
             }
         }
-        return new MatrixBD(rref);
+        return true;
+    }
+
+    // take the reduced echelon form and the solution of another matrix with the same entries from the cache
+    private void adopt(EliminationCacheBD.Entry cached){
+        piC.addAll(Arrays.asList(cached.piC));
+        freeC.addAll(Arrays.asList(cached.freeC));
+        sol = cached.sol;
+        // shared as cached, only converted when a dense matrix and a compact one have the same entries
+        if (compactMa != null) compactRref = cached.compactRref != null ? cached.compactRref : new CompactBD(cached.rref);
+        else rref = cached.rref != null ? cached.rref : cached.compactRref.expand();
     }
 
     // give out the free variables
@@ -283,27 +507,159 @@ public class MatrixBD {
      * @return all the solutions of the matrix, null if no solution
      */
     public VectorBD[] sol(){
+        // the structure of the coefficients may allow a path cheaper than RREF(), with sol null if there is no solution
+        if (solPath() != MatrixStructure.Path.RREF) {
+            if (sol == null) return null;
+            VectorBD[] result = new VectorBD[sol.length];
+            for (int i = 0; i < sol.length; i++) result[i] = new VectorBD(sol[i]);
+            return result;
+        }
+        if (!EliminationStats.enabled()) return solve(null);
+
+        // the elimination counts for itself, only the back-substitution counts here
+        reduce(null);
+        EliminationStats.Counter count = new EliminationStats.Counter(EliminationStats.Phase.SOL, ro, co);
+        count.start();
+        VectorBD[] result = solve(count);
+        count.stop();
+        count.finish();
+        return result;
+    }
+
+    // structure
+    /**
+     * @return what one scan finds about the coefficients of this matrix, all its columns but the last
+     */
+    public synchronized MatrixStructure structure(){
+        if (structure == null) structure = MatrixStructure.of(this);
+        return structure;
+    }
+
+    /**the path {@link #sol()} takes for this matrix, from its {@link #structure()}
+     * <p>square coefficients that are triangular, possibly after reordering the rows, are solved by substitution;
+     * banded ones by {@link BandMatrixBD}; other square systems of integers exactly by fraction-free elimination;
+     * other sparse ones by {@link SparseMatrixBD};
+     * anything else, or any of the square ones that turns out singular, by {@link #RREF()}
+     * <p>finding the path may solve the matrix already; the path and its solution are kept in {@link EliminationCacheBD}
+     * for other matrices with the same entries
+     * @return the path sol() takes
+     */
+    public synchronized MatrixStructure.Path solPath(){
+        if (path == null) path = dispatch();
+        return path;
+    }
+
+    // try the paths cheaper than RREF(), keeping the solution in sol when one works
+    private MatrixStructure.Path dispatch(){
+        // a solution already found, by RREF() or the cache, is not worth another path
+        if (sol != null || rref != null || compactRref != null) return MatrixStructure.Path.RREF;
+
+        // another matrix with the same entries already solved, on a cheaper path or by RREF()
+        EliminationCacheBD.Entry cached = EliminationCacheBD.get(this);
+        if (cached != null && cached.path != null) {
+            sol = cached.sol;
+            return cached.path;
+        }
+        if (cached != null && cached.reduced()) {
+            adopt(cached);
+            return MatrixStructure.Path.RREF;
+        }
+
+        MatrixStructure.Path result = cheaperPath();
+        if (result != MatrixStructure.Path.RREF) EliminationCacheBD.putSol(this, result, sol);
+        return result;
+    }
+
+    // the first path cheaper than RREF() that works, RREF if none
+    private MatrixStructure.Path cheaperPath(){
+        MatrixStructure s = structure();
+
+        if (s.square() && ro > 0) {
+            int[] order = s.upperOrder() != null ? s.upperOrder() : s.lowerOrder();
+            if (order != null) {
+                sol = new BigDecimal[][]{substitute(order, s.upperOrder() != null)};
+                if (s.diagonal()) return MatrixStructure.Path.DIAGONAL;
+                if (s.upperTriangular() || s.lowerTriangular()) return MatrixStructure.Path.TRIANGULAR;
+                return MatrixStructure.Path.PERMUTED_TRIANGULAR;
+            }
+            if (s.narrowBand()) {
+                BigDecimal[] constants = new BigDecimal[ro];
+                for (int i = 0; i < ro; i++) constants[i] = entry(i, co - 1);
+                try {
+                    // BandMatrixBD decides exactly whether the coefficients are singular before it solves
+                    sol = new BigDecimal[][]{new BandMatrixBD(this, s.lowerBandwidth(), s.upperBandwidth()).sol(new VectorBD(constants)).toArray()};
+                    return MatrixStructure.Path.BANDED;
+                } catch (ArithmeticException e) {
+                    // singular, leave it to RREF()
+                    return MatrixStructure.Path.RREF;
+                }
+            }
+
+            // integers exactly, before the rounded sparse elimination, whose pivots of a singular matrix need not come out 0
+            if (s.integer()) {
+                BigDecimal[] x = BareissBD.solve(toArray(), mc);
+                if (x == null) return MatrixStructure.Path.RREF;
+                sol = new BigDecimal[][]{x};
+                return MatrixStructure.Path.INTEGER;
+            }
+        }
+
+        // any shape, with free variables or no solution, like RREF()
+        if (s.sparse()) {
+            VectorBD[] result = new SparseMatrixBD(this).sol();
+            if (result != null) {
+                sol = new BigDecimal[result.length][];
+                for (int i = 0; i < result.length; i++) sol[i] = result[i].toArray();
+            }
+            return MatrixStructure.Path.SPARSE;
+        }
+        return MatrixStructure.Path.RREF;
+    }
+
+    // solve triangular coefficients by substitution, the k-th equation being row order[k]
+    private BigDecimal[] substitute(int[] order, boolean upper){
+        int n = ro;
+        BigDecimal[] x = new BigDecimal[n];
+        for (int step = 0; step < n; step++) {
+            int k = upper ? n - 1 - step : step;
+            int row = order[k];
+            BigDecimal sum = entry(row, n);
+            for (int j = upper ? k + 1 : 0; j < (upper ? n : k); j++) {
+                BigDecimal value = entry(row, j);
+                if (value.signum() != 0) sum = sum.subtract(value.multiply(x[j]));
+            }
+            x[k] = CompactBD.canonical(sum.divide(entry(row, k), mc).stripTrailingZeros());
+        }
+        return x;
+    }
+
+    // sol(), counting the back-substitution in count unless it is null
+    private VectorBD[] solve(EliminationStats.Counter count){
         // make sure RREF is called
-        RREF();
+        reduce(null);
+        BigDecimal[][] rref = this.rref != null ? this.rref : compactRref.expand();
 
         // no solution when the last pivot is in the last column
         // piC.get(piC.size() - 1: the column of the last pivot
-        if (piC.get(piC.size() - 1) == co - 1) return null;
+        if (!piC.isEmpty() && piC.get(piC.size() - 1) == co - 1) return null;
+
+        // the free variables, taken once
+        Integer[] free = freeVar();
 
         // initialize the vector array to return
-        VectorBD[] result = new VectorBD[freeVar().length + 1];
+        VectorBD[] result = new VectorBD[free.length + 1];
 
         // check if the one solution is already generated
         if (sol != null) {
-            for (int i = 0; i < freeVar().length + 1; i++) result[i] = new VectorBD(sol[i]);
+            for (int i = 0; i < free.length + 1; i++) result[i] = new VectorBD(sol[i]);
             return result;
         }
 
         // when it has 1 solution
-        if (freeVar().length == 0) {
+        if (free.length == 0) {
             // initialize the array of 0s to store vectors to be multiplied by free variables
-            sol = new BigDecimal[freeVar().length + 1][co - 1];
-            for (int i = 0; i < freeVar().length + 1; i++) for (int j = 0; j < co - 1; j++) sol[i][j] = BigDecimal.ZERO;
+            sol = new BigDecimal[1][co - 1];
+            for (int j = 0; j < co - 1; j++) sol[0][j] = BigDecimal.ZERO;
 
             // proceed from the last pivot to the first
             // piNow: the pivot being considered, also the row it is in, the column it is in is piC.get(piNow)
@@ -316,9 +672,11 @@ public class MatrixBD {
                 // iC: the column and the variable dealing with
                 for (int iC = piC.get(piNow) + 1; iC < co - 1; iC++) {
                     sol[0][piC.get(piNow)] = sol[0][piC.get(piNow)].subtract(rref[piNow][iC].multiply(sol[0][iC]));
+                    if (count != null) count.update(rref[piNow][iC], sol[0][piC.get(piNow)], false);
                 }
             }
             result[0] = new VectorBD(sol[0]);
+            EliminationCacheBD.putSol(this, sol);
 
             return result;
         }
@@ -329,17 +687,14 @@ public class MatrixBD {
         BigDecimal tempDec;
         int pC, tempInd;
 
+        // map each column to its index among the free variables, -1 for the pivot columns
+        int[] freeIndex = freeIndex(free);
+
         // initialize the array of 0s to store vectors to be multiplied by free variables
         // set all the free variables' own places to 1
-        sol = new BigDecimal[freeVar().length + 1][co - 1];
-
-        // i = 0
-        for (int j = 0; j < co - 1; j++) sol[0][j] = BigDecimal.ZERO;
-        for (int i = 1; i < freeVar().length + 1; i++) {
-            for (int j = 0; j < freeVar()[i - 1]; j++) sol[i][j] = BigDecimal.ZERO;
-            sol[i][freeVar()[i - 1]] = BigDecimal.ONE;
-            for (int j = freeVar()[i - 1] + 1; j < co - 1; j++) sol[i][j] = BigDecimal.ZERO;
-        }
+        sol = new BigDecimal[free.length + 1][co - 1];
+        for (BigDecimal[] row : sol) Arrays.fill(row, BigDecimal.ZERO);
+        for (int i = 1; i < free.length + 1; i++) sol[i][free[i - 1]] = BigDecimal.ONE;
 
         // proceed pivot rref[piNow][pC] from rightmost (piC.size() - 1) to 0
         // piNow: the pivot being considered, also the row it is in, the column it is in is piC.get(piNow)
@@ -354,11 +709,12 @@ public class MatrixBD {
             // subtract other variables from the one but rightmost to the one next to this pivot
             // iC: the column and the variable dealing with
             for (int iC = pC + 1; iC < co - 1; iC++) {
-                // store the value of the element as tempDec
+                // store the value of the element as tempDec, nothing to subtract if it is 0
                 tempDec = rref[piNow][iC];
+                if (tempDec.signum() == 0) continue;
 
                 // store the index of the free variable as tempInd
-                tempInd = Arrays.binarySearch(freeVar(), iC);
+                tempInd = freeIndex[iC];
 
                 // for free variables
                 if (tempInd >= 0) {
@@ -370,24 +726,200 @@ public class MatrixBD {
                 else {
                     // subtract the constant
                     sol[0][pC] = sol[0][pC].subtract(sol[0][iC].multiply(tempDec));
+                    if (count != null) count.update(tempDec, sol[0][pC], false);
 
-                    // proceed sol[jR][iC] from the right to the variable being checked (piNow + 1) to (co - 1)
-                    for (int jR = piNow + 1; jR < co; jR++) {
-                        // store the index of the free variable as tempInd
-                        tempInd = Arrays.binarySearch(freeVar(), jR);
-
-                        // subtract the free variables
-                        if (tempInd > 0) sol[tempInd + 1][pC] = sol[tempInd + 1][pC].subtract(sol[tempInd + 1][iC].multiply(tempDec));
+                    // the base variable iC depends on the free variables, so this one does through it
+                    for (int k = 1; k < free.length + 1; k++) {
+                        if (sol[k][iC].signum() == 0) continue;
+                        sol[k][pC] = sol[k][pC].subtract(sol[k][iC].multiply(tempDec));
+                        if (count != null) count.update(tempDec, sol[k][pC], false);
                     }
                 }
             }
         }
         // translate the 2D array to vector array
-        for (int i = 0; i < freeVar().length + 1; i++) result[i] = new VectorBD(sol[i]);
+        for (int i = 0; i < free.length + 1; i++) result[i] = new VectorBD(sol[i]);
+        EliminationCacheBD.putSol(this, sol);
 
         return result;
     }
 
+    // map each of the co - 1 unknowns to its index among the free variables, -1 for the base variables
+    private int[] freeIndex(Integer[] free){
+        int[] result = new int[co - 1];
+        Arrays.fill(result, -1);
+        for (int i = 0; i < free.length; i++) result[free[i]] = i;
+        return result;
+    }
+
+    // null space
+    /**the solutions of the matrix as an object, to evaluate at many values of the free variables
+     * <p>if there is no solution, return null
+     * @return the particular solution and the basis of the null space, null if no solution
+     */
+    public synchronized NullSpaceBD nullSpace(){
+        if (nullSpace == null) {
+            VectorBD[] solution = sol();
+            if (solution == null) return null;
+            nullSpace = new NullSpaceBD(solution);
+        }
+        return nullSpace;
+    }
+
+    // power
+    /**raise the square matrix to a power exactly, by repeated squaring
+     * <p>it takes about 2 log2(k) matrix products instead of k; the squares are kept for later calls to pow() and powTimes()
+     * <p>the digits of the entries grow about linearly with k, so high powers should be rounded with {@link #pow(long, MathContext)}
+     * @param k the power, 0 for the identity
+     * @return a new matrix, this matrix to the power k
+     */
+    public MatrixBD pow(long k){
+        return pow(k, null);
+    }
+
+    /**raise the square matrix to a power by repeated squaring, rounding every product
+     * @param k the power, 0 for the identity
+     * @param mc the math context to round each product to, null to not round
+     * @return a new matrix, this matrix to the power k
+     */
+    public MatrixBD pow(long k, MathContext mc){
+        checkPower(k);
+        BigDecimal[][] result = new BigDecimal[ro][ro];
+        for (BigDecimal[] row : result) Arrays.fill(row, BigDecimal.ZERO);
+        if (diagonal()) {
+            for (int i = 0; i < ro; i++) result[i][i] = power(entry(i, i), k, mc);
+            return wrap(result);
+        }
+        if (k == 0) {
+            for (int i = 0; i < ro; i++) result[i][i] = BigDecimal.ONE;
+            return wrap(result);
+        }
+
+        // multiply the squares of the bits of k that are set
+        // when k is a power of 2, the result is one of the squares kept, so it is copied
+        result = null;
+        boolean kept = false;
+        for (int i = 0; k >> i != 0; i++) {
+            if ((k >> i & 1) == 0) continue;
+            kept = result == null;
+            result = result == null ? square(i, mc) : round(MultiplyBD.multiply(result, square(i, mc), null), mc);
+        }
+        return kept ? new MatrixBD(result) : wrap(result);
+    }
+
+    /**raise the square matrix to a power exactly and multiply it by a vector, like {@link #powTimes(long, VectorBD, MathContext)}
+     * @param k the power, 0 for the identity
+     * @param that the vector to multiply
+     * @return a new vector, this matrix to the power k times that vector
+     */
+    public VectorBD powTimes(long k, VectorBD that){
+        return powTimes(k, that, null);
+    }
+
+    /**raise the square matrix to a power and multiply it by a vector, without forming the power when it is cheaper not to
+     * <p>a small power is applied as k products with the vector, O(k n²);
+     * a large one as one product with the vector per bit of k set, once the squares are there, O(log2(k) n³) the first time
+     * @param k the power, 0 for the identity
+     * @param that the vector to multiply
+     * @param mc the math context to round each product to, null to not round
+     * @return a new vector, this matrix to the power k times that vector
+     */
+    public VectorBD powTimes(long k, VectorBD that, MathContext mc){
+        checkPower(k);
+        if (co != that.dim()) throw new IllegalArgumentException("the number of columns of the matrix must equal to the number of dimensions of the vector");
+        BigDecimal[] ve = that.toArray();
+        if (diagonal()) {
+            BigDecimal[] result = new BigDecimal[ro];
+            for (int i = 0; i < ro; i++) result[i] = round(power(entry(i, i), k, mc).multiply(ve[i]), mc);
+            return new VectorBD(result);
+        }
+
+        BigDecimal[] result = ve;
+        int bits = 64 - Long.numberOfLeadingZeros(k);
+        synchronized (squares) {
+            // each missing square costs n³, as much as n products with the vector
+            int kept = Objects.equals(squaresMc, mc) ? squares.size() : 0;
+            if (k < (long) (bits - kept) * ro) {
+                BigDecimal[][] a = toArray();
+                for (long i = 0; i < k; i++) result = times(a, result, mc);
+                return new VectorBD(result);
+            }
+        }
+
+        // the powers of the matrix commute, so the squares can be applied in any order
+        for (int i = 0; i < bits; i++) {
+            if ((k >> i & 1) != 0) result = times(square(i, mc), result, mc);
+        }
+        return new VectorBD(result);
+    }
+
+    // A^(2^i) rounded to mc, squaring the last one kept until there
+    private BigDecimal[][] square(int i, MathContext mc){
+        synchronized (squares) {
+            if (squares.isEmpty() || !Objects.equals(squaresMc, mc)) {
+                squares.clear();
+                // A itself rounded like the products, in an array of its own so the storage of this matrix is not changed
+                BigDecimal[][] first = ma != null ? new BigDecimal[ro][] : compactMa.expand();
+                if (ma != null) for (int r = 0; r < ro; r++) first[r] = ma[r].clone();
+                squares.add(round(first, mc));
+                squaresMc = mc;
+            }
+            while (squares.size() <= i) {
+                BigDecimal[][] last = squares.get(squares.size() - 1);
+                squares.add(round(MultiplyBD.multiply(last, last, null), mc));
+            }
+            return squares.get(i);
+        }
+    }
+
+    // whether the matrix is square and 0 outside the main diagonal
+    private boolean diagonal(){
+        for (int i = 0; i < ro; i++) {
+            for (int j = 0; j < co; j++) if (i != j && entry(i, j).signum() != 0) return false;
+        }
+        return true;
+    }
+
+    private void checkPower(long k){
+        if (ro != co) throw new IllegalArgumentException("the matrix must be square");
+        if (k < 0) throw new IllegalArgumentException("the power must not be negative");
+    }
+
+    // x to the power k by repeated squaring, rounding every product to mc unless it is null
+    private static BigDecimal power(BigDecimal x, long k, MathContext mc){
+        BigDecimal result = BigDecimal.ONE;
+        for (BigDecimal square = x; k != 0; k >>= 1) {
+            if ((k & 1) != 0) result = round(result.multiply(square), mc);
+            if (k > 1) square = round(square.multiply(square), mc);
+        }
+        return CompactBD.canonical(result);
+    }
+
+    // multiply a matrix given as 2D array by a vector given as array
+    private static BigDecimal[] times(BigDecimal[][] a, BigDecimal[] ve, MathContext mc){
+        BigDecimal[] result = new BigDecimal[a.length];
+        for (int i = 0; i < a.length; i++) {
+            BigDecimal sum = BigDecimal.ZERO;
+            for (int j = 0; j < ve.length; j++) {
+                if (a[i][j].signum() != 0 && ve[j].signum() != 0) sum = sum.add(a[i][j].multiply(ve[j]));
+            }
+            result[i] = round(sum, mc);
+        }
+        return result;
+    }
+
+    private static BigDecimal round(BigDecimal value, MathContext mc){
+        return mc == null ? value : value.round(mc);
+    }
+
+    private static BigDecimal[][] round(BigDecimal[][] array, MathContext mc){
+        if (mc == null) return array;
+        for (BigDecimal[] row : array) {
+            for (int j = 0; j < row.length; j++) row[j] = row[j].round(mc);
+        }
+        return array;
+    }
+
     /**instruct the user to input a matrix through standard input
      * @return the matrix input from standard input
      */
@@ -424,8 +956,10 @@ public class MatrixBD {
         System.out.print("Solution: ");
         if (sol != null) {
             System.out.print(new VectorBD(sol[0]));
-            for(int i = 0; i < freeC.size(); i++) {
-                System.out.print(" + " + "x" +(freeC.get(i) + 1) + " * " + new VectorBD(sol[i + 1]));
+            // sol() may have found the solutions without RREF()
+            Integer[] free = sol.length > 1 ? freeVar() : new Integer[0];
+            for(int i = 0; i < free.length; i++) {
+                System.out.print(" + " + "x" +(free[i] + 1) + " * " + new VectorBD(sol[i + 1]));
             }
         }
         System.out.println();
@@ -444,5 +978,13 @@ public class MatrixBD {
         System.out.println(Arrays.toString(b.freeVar()));
         System.out.println(Arrays.toString(a.sol()));
         System.out.println(Arrays.toString(b.sol()));
+        System.out.println(a.time(b));
+
+        // a singular pentadiagonal system of integers, whose rounded band elimination would find a solution
+        int[][] singular = {{0, 1, -1, 0, 0, 0, 0, 0, -1}, {0, -1, 1, -2, 0, 0, 0, 0, -2}, {1, 2, 1, 2, 2, 0, 0, 0, 1},
+                {0, 2, 0, 2, -2, 0, 0, 0, 0}, {0, 0, 2, 1, 0, 0, 1, 0, -2}, {0, 0, 0, 0, -2, -1, 0, 2, 0},
+                {0, 0, 0, 0, 2, -1, -2, -2, 1}, {0, 0, 0, 0, 0, 0, -2, -2, -1}};
+        MatrixBD c = new MatrixBD(singular);
+        System.out.println(c.solPath() + " " + Arrays.toString(c.sol()) + " " + Arrays.toString(new MatrixBD(singular).RREF().sol()));
     }
 }
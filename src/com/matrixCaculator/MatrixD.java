@@ -4,6 +4,11 @@ import com.vectorCalculation.VectorD;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 
 public class MatrixD {
 
@@ -21,6 +26,17 @@ public class MatrixD {
     // store free variables
     private final ArrayList<Integer> piC = new ArrayList<>(), freeC = new ArrayList<>();
 
+    // store the structure of the coefficients
+    // store the path sol() takes
+    private MatrixStructure structure = null;
+    private MatrixStructure.Path path = null;
+
+    // store the repeated squares of the matrix, A^(2^i) at index i, for pow() and powTimes()
+    private final ArrayList<double[][]> squares = new ArrayList<>();
+
+    // store the QR factorization, for leastSquares()
+    private HouseholderQRD qr = null;
+
     // constructor
     /**create a matrix based on 2D array
      * @param matrixArray all entries in the matrix as 2D array
@@ -101,6 +117,46 @@ public class MatrixD {
         return new VectorD(result);
     }
 
+    /** multiply the matrix by a vector into a vector given, allocating nothing
+     * @param that the vector to multiply
+     * @param out the vector whose entries are replaced by the product, of dimension the rows of this matrix, not that
+     * @return out
+     */
+    public VectorD time(VectorD that, VectorD out){
+        if(co != that.dim()) throw new IllegalArgumentException("the number of columns of the matrix must equal to the number of dimensions of the vector");
+        if (out == null || out.dim() != ro) throw new IllegalArgumentException("the vector to write into must have a dimension equal to the number of rows of the matrix");
+        if (out == that) throw new IllegalArgumentException("the vector to write into must not be the vector multiplied");
+        double[] result = out.toArray();
+        double[] ve = that.toArray();
+        for (int i = 0; i < ro; i++) {
+            result[i] = 0;
+            for(int j = 0; j < co; j++) {
+                result[i] = result[i] + ma[i][j] * ve[j];
+            }
+        }
+        return out;
+    }
+
+    /** multiply the matrix by a vector into a vector of a workspace
+     * @param that the vector to multiply
+     * @param workspace the workspace handing out the vector for the product
+     * @return the product, a vector of the workspace
+     */
+    public VectorD time(VectorD that, WorkspaceD workspace){
+        return time(that, workspace.vector(ro));
+    }
+
+    // multiply by matrix
+    /** multiply the matrix by a matrix with rows equal to the columns of this matrix
+     * @param that the matrix to multiply
+     * @return a new matrix gained by multiplying the two matrices
+     */
+    public MatrixD time(MatrixD that){
+        if (that == null) throw new IllegalArgumentException("the matrix to multiply must not be null");
+        if (co != that.ro) throw new IllegalArgumentException("the number of columns of this matrix must equal to the number of rows of that matrix");
+        return new MatrixD(MultiplyD.multiply(ma, that.ma));
+    }
+
     // to string
     public String toString() {
         return Arrays.deepToString(ma);
@@ -112,102 +168,94 @@ public class MatrixD {
      * @return the reduced (row) echelon form of this matrix
      */
     public MatrixD RREF(){
-        // check if rref is already calculated
-        if (rref != null) return new MatrixD(rref);
+        reduce(null);
+        return new MatrixD(rref);
+    }
 
-        // copy ma as rref
-        rref = new double[ro][co];
-        for (int i = 0; i < ro; i++) System.arraycopy(ma[i], 0, rref[i], 0, co);
+    /**generate the reduced (row) echelon form of this matrix in the arrays of a workspace, allocating nothing once they are made
+     * <p>unlike {@link #RREF()}, nothing is kept in this matrix
+     * @param workspace the workspace to eliminate in
+     * @return the reduced (row) echelon form, in an array of the workspace valid until it eliminates again
+     */
+    public double[][] RREF(WorkspaceD workspace){
+        return workspace.RREF(ma);
+    }
 
-        // assign variables
-        double[] tempArray = new double[co];
-        double tempDec;
+    /**generate the reduced (row) echelon form of this matrix on an executor
+     * <p>cancelling the future stops the elimination at the next pivot; the matrix keeps no partial result
+     * @param executor the executor to run the elimination on
+     * @return a future of the reduced (row) echelon form of this matrix
+     */
+    public CompletableFuture<MatrixD> rrefAsync(Executor executor){
+        return async(executor, 0, null, () -> new MatrixD(rref));
+    }
 
-        // forward phase
+    /**generate the reduced (row) echelon form of this matrix on an executor, giving up after a timeout
+     * <p>cancelling the future, or reaching the timeout, stops the elimination at the next pivot; the matrix keeps no partial result
+     * @param executor the executor to run the elimination on
+     * @param timeout how long to wait before giving up, counted from now
+     * @param unit the unit of timeout
+     * @return a future of the reduced (row) echelon form of this matrix, completed with a TimeoutException when giving up
+     */
+    public CompletableFuture<MatrixD> rrefAsync(Executor executor, long timeout, TimeUnit unit){
+        return async(executor, timeout, unit, () -> new MatrixD(rref));
+    }
 
-        // find pivots
-        // iC: the column being searched, from 0 to (co - 1)
-        // topR: the highest row still considered, from 0 to (ro - 1)
-        for (int iC = 0, topR = 0; iC < co; iC++) {
-            // no enough rows so the rest become free variables
-            if (topR >= ro) {
-                // it is a free variable if not a constant
-                if (iC < co - 1) freeC.add(iC);
-            }
+    /**generate all the solutions of the matrix on an executor, like {@link #sol()}
+     * <p>cancelling the future stops the elimination at the next pivot; the matrix keeps no partial result
+     * @param executor the executor to run the elimination on
+     * @return a future of all the solutions of the matrix, with null if no solution
+     */
+    public CompletableFuture<VectorD[]> solveAsync(Executor executor){
+        return async(executor, 0, null, this::sol);
+    }
 
-            // there are still rows to be searched
-            else {
-                // tR: current row scanning
-                for (int tR = topR; tR < ro; tR++) {
-                    // found nonzero entry, use it as a pivot
-                    if (rref[tR][iC] != 0) {
-                        // swap it to the top
-                        System.arraycopy(rref[tR], 0, tempArray, 0, co);
-                        System.arraycopy(tempArray, 0, rref[topR], 0, co);
-
-                        // record it to the array list
-                        piC.add(iC);
-
-                        // make pivot 1
-                        tempDec = rref[topR][iC];
-
-                        for (int i = iC; i < co; i++) {
-                            rref[topR][i] = rref[topR][i] / tempDec;
-                        }
-
-                        // check all entries below for nonzero entries and eliminate them
-                        for (int checkR = topR + 1; checkR < ro; checkR++) {
-                            // nonzero entries found
-                            if (rref[checkR][iC] != 0) {
-                                // subtract all of them to cancel the entry
-                                tempDec = rref[checkR][iC];
-                                for (int i = iC; i < co; i++) {
-                                    rref[checkR][i] = rref[checkR][i] - rref[topR][i] * tempDec;
-                                }
-                            }
-                        }
-
-                        // now all is done, another top row eliminated
-                        topR++;
-
-                        // stop looking for entries in this column
-                        break;
-                    }
+    /**generate all the solutions of the matrix on an executor like {@link #sol()}, giving up after a timeout
+     * <p>cancelling the future, or reaching the timeout, stops the elimination at the next pivot; the matrix keeps no partial result
+     * @param executor the executor to run the elimination on
+     * @param timeout how long to wait before giving up, counted from now
+     * @param unit the unit of timeout
+     * @return a future of all the solutions of the matrix, with null if no solution, completed with a TimeoutException when giving up
+     */
+    public CompletableFuture<VectorD[]> solveAsync(Executor executor, long timeout, TimeUnit unit){
+        return async(executor, timeout, unit, this::sol);
+    }
 
-                    // it is the last row, no nonzero entry in this column
-                    if (tR > ro - 2) {
-                        // not the last column, it is a free variable
-                        if (iC < co - 1) freeC.add(iC);
-                    }
-                }
+    // run the elimination on an executor, checking the future between pivots, then complete it with result
+    private <T> CompletableFuture<T> async(Executor executor, long timeout, TimeUnit unit, Supplier<T> result){
+        if (executor == null) throw new IllegalArgumentException("the executor must not be null");
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (unit != null) future.orTimeout(timeout, unit);
+        executor.execute(() -> {
+            try {
+                if (reduce(future::isDone)) future.complete(result.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
             }
+        });
+        return future;
+    }
+
+    // make sure rref, piC and freeC are calculated, unless stop says so first
+    // return whether they are calculated
+    private boolean reduce(BooleanSupplier stop){
+        // check if rref is already calculated
+        synchronized (this) {
+            if (rref != null) return true;
         }
 
-        // backward phase
-
-        // number of pivots
-        int pivot = piC.size();
-
-        // check all pivots from the bottom one
-        // piNow: the pivot focused now, from (pivot - 1) to 1
-        // there is no point checking for pivot 0 as nothing is above it
-        // it is also the row index for sure
-        for (int piNow = pivot - 1; piNow > 0; piNow--) {
-            // check upwards one-by-one from the pivots and eliminate nonzero entries
-            // checkR: the row being checked
-            for (int checkR = piNow - 1; checkR >= 0; checkR--) {
-                // found nonzero entry
-                if (rref[checkR][piC.get(piNow)] != 0) {
-                    tempDec = rref[checkR][piC.get(piNow)];
-
-                    // eliminate the entry, from piNow's column to the rightmost
-                    for(int i = piC.get(piNow); i < co; i++) {
-                        rref[checkR][i] = rref[checkR][i] - rref[piNow][i] * tempDec;
-                    }
-                }
+        // eliminate a copy, so nothing is kept if stopped halfway
+        EliminationD elimination = new EliminationD(ma);
+        if (!elimination.run(stop)) return false;
+
+        synchronized (this) {
+            if (rref == null) {
+                for (int i = 0; i < elimination.pivots; i++) piC.add(elimination.piC[i]);
+                for (int i = 0; i < elimination.frees; i++) freeC.add(elimination.freeC[i]);
+                rref = elimination.rref;
             }
         }
-        return new MatrixD(rref);
+        return true;
     }
 
     // give out the free variables
@@ -226,12 +274,15 @@ public class MatrixD {
      * @return all the solutions of the matrix, null if no solution
      */
     public VectorD[] sol(){
+        // the structure of the coefficients may allow a path cheaper than RREF(), with one solution
+        if (solPath() != MatrixStructure.Path.RREF) return new VectorD[]{new VectorD(sol[0])};
+
         // make sure RREF is called
         RREF();
 
         // no solution when the last pivot is in the last column
         // piC.get(piC.size() - 1: the column of the last pivot
-        if (piC.get(piC.size() - 1) == co - 1) return null;
+        if (!piC.isEmpty() && piC.get(piC.size() - 1) == co - 1) return null;
 
         // initialize the vector array to return
         VectorD[] result = new VectorD[freeVar().length + 1];
@@ -331,6 +382,231 @@ public class MatrixD {
         return result;
     }
 
+    /**generate all the solutions of the matrix in the arrays of a workspace, allocating nothing once they are made
+     * <p>the same values as {@link #sol()} when it takes the path of RREF(), and like it for the other paths;
+     * nothing is kept in this matrix
+     * @param workspace the workspace to solve in
+     * @return all the solutions as rows, in arrays of the workspace valid until it eliminates again, null if no solution
+     */
+    public double[][] sol(WorkspaceD workspace){
+        return workspace.sol(ma);
+    }
+
+    // structure
+    /**
+     * @return what one scan finds about the coefficients of this matrix, all its columns but the last
+     */
+    public synchronized MatrixStructure structure(){
+        if (structure == null) structure = MatrixStructure.of(ma);
+        return structure;
+    }
+
+    /**the path {@link #sol()} takes for this matrix, from its {@link #structure()}
+     * <p>square coefficients that are triangular, possibly after reordering the rows, are solved by substitution;
+     * banded or symmetric positive-definite ones by {@link BandMatrixD} or {@link CholeskyD};
+     * anything else, or any of these that turns out singular, by {@link #RREF()}
+     * <p>finding the path may solve the matrix already
+     * @return the path sol() takes
+     */
+    public synchronized MatrixStructure.Path solPath(){
+        if (path == null) path = dispatch();
+        return path;
+    }
+
+    // try the paths cheaper than RREF(), keeping the solution in sol when one works
+    private MatrixStructure.Path dispatch(){
+        // a solution already found by RREF() is not worth another path
+        if (sol != null || rref != null) return MatrixStructure.Path.RREF;
+        MatrixStructure s = structure();
+        if (!s.square() || ro == 0) return MatrixStructure.Path.RREF;
+
+        int[] order = s.upperOrder() != null ? s.upperOrder() : s.lowerOrder();
+        if (order != null) {
+            sol = new double[][]{substitute(order, s.upperOrder() != null)};
+            if (s.diagonal()) return MatrixStructure.Path.DIAGONAL;
+            if (s.upperTriangular() || s.lowerTriangular()) return MatrixStructure.Path.TRIANGULAR;
+            return MatrixStructure.Path.PERMUTED_TRIANGULAR;
+        }
+
+        double[] constants = new double[ro];
+        for (int i = 0; i < ro; i++) constants[i] = ma[i][co - 1];
+        if (s.narrowBand()) {
+            try {
+                sol = new double[][]{new BandMatrixD(ma, s.lowerBandwidth(), s.upperBandwidth()).sol(new VectorD(constants)).toArray()};
+                return MatrixStructure.Path.BANDED;
+            } catch (ArithmeticException e) {
+                // singular, leave it to RREF()
+                return MatrixStructure.Path.RREF;
+            }
+        }
+        if (s.symmetric() && s.positiveDiagonal()) {
+            try {
+                sol = new double[][]{new CholeskyD(ma).sol(new VectorD(constants)).toArray()};
+                return MatrixStructure.Path.CHOLESKY;
+            } catch (ArithmeticException e) {
+                // not positive definite after all
+            }
+        }
+        return MatrixStructure.Path.RREF;
+    }
+
+    // solve triangular coefficients by substitution, the k-th equation being row order[k]
+    private double[] substitute(int[] order, boolean upper){
+        int n = ro;
+        double[] x = new double[n];
+        for (int step = 0; step < n; step++) {
+            int k = upper ? n - 1 - step : step;
+            double[] row = ma[order[k]];
+            double sum = row[n];
+            if (upper) for (int j = k + 1; j < n; j++) sum -= row[j] * x[j];
+            else for (int j = 0; j < k; j++) sum -= row[j] * x[j];
+            x[k] = sum / row[k];
+        }
+        return x;
+    }
+
+    // Cholesky factorization
+    /**factor this symmetric positive-definite matrix as L Lᵀ, with half the operations and memory of {@link #RREF()}
+     * @return the factorization of this matrix, which must be square
+     * @throws ArithmeticException if this matrix is not symmetric or not positive definite
+     */
+    public CholeskyD cholesky(){
+        return new CholeskyD(this);
+    }
+
+    // solve a symmetric positive-definite system
+    /**solve this augmented matrix with a Cholesky factorization of its coefficients instead of {@link #RREF()}
+     * <p>the coefficients, all columns but the last, must be symmetric positive definite, so there is exactly one solution;
+     * otherwise an ArithmeticException is thrown and {@link #sol()} can be used instead
+     * @return the one solution of this matrix
+     * @throws ArithmeticException if the coefficients are not symmetric or not positive definite
+     */
+    public VectorD solSPD(){
+        if (co != ro + 1) throw new IllegalArgumentException("the matrix must have one more column than rows");
+        double[] constants = new double[ro];
+        for (int i = 0; i < ro; i++) constants[i] = ma[i][co - 1];
+        return new CholeskyD(ma).sol(new VectorD(constants));
+    }
+
+    // QR factorization
+    /**factor this matrix as Q R by Householder reflections, kept for later calls
+     * @return the factorization of this matrix of coefficients, which must have at least as many rows as columns
+     */
+    public synchronized HouseholderQRD qr(){
+        if (qr == null) qr = new HouseholderQRD(this);
+        return qr;
+    }
+
+    // least squares
+    /**find the x minimizing the length of A x - b, where A is this matrix of coefficients, not augmented
+     * <p>for an overdetermined system, this is the best fit where {@link #sol()} finds no solution;
+     * the factorization is kept, so solving for other constants only takes O(m n)
+     * @param b the constants, of dimension the rows of this matrix
+     * @return the least-squares solution x
+     * @throws ArithmeticException if the columns of this matrix are linearly dependent, so there is no single such x
+     */
+    public VectorD leastSquares(VectorD b){
+        return qr().leastSquares(b);
+    }
+
+    // power
+    /**raise the square matrix to a power, by repeated squaring
+     * <p>it takes about 2 log2(k) matrix products instead of k; the squares are kept for later calls to pow() and powTimes()
+     * @param k the power, 0 for the identity
+     * @return a new matrix, this matrix to the power k
+     */
+    public MatrixD pow(long k){
+        checkPower(k);
+        double[][] result = new double[ro][ro];
+        if (diagonal()) {
+            for (int i = 0; i < ro; i++) result[i][i] = Math.pow(ma[i][i], k);
+            return new MatrixD(result);
+        }
+        if (k == 0) {
+            for (int i = 0; i < ro; i++) result[i][i] = 1;
+            return new MatrixD(result);
+        }
+
+        // multiply the squares of the bits of k that are set
+        result = null;
+        for (int i = 0; k >> i != 0; i++) {
+            if ((k >> i & 1) == 0) continue;
+            result = result == null ? square(i) : MultiplyD.multiply(result, square(i));
+        }
+        return new MatrixD(result);
+    }
+
+    /**raise the square matrix to a power and multiply it by a vector, without forming the power when it is cheaper not to
+     * <p>a small power is applied as k products with the vector, O(k n²);
+     * a large one as one product with the vector per bit of k set, once the squares are there, O(log2(k) n³) the first time
+     * @param k the power, 0 for the identity
+     * @param that the vector to multiply
+     * @return a new vector, this matrix to the power k times that vector
+     */
+    public VectorD powTimes(long k, VectorD that){
+        checkPower(k);
+        if (co != that.dim()) throw new IllegalArgumentException("the number of columns of the matrix must equal to the number of dimensions of the vector");
+        double[] ve = that.toArray();
+        if (diagonal()) {
+            double[] result = new double[ro];
+            for (int i = 0; i < ro; i++) result[i] = Math.pow(ma[i][i], k) * ve[i];
+            return new VectorD(result);
+        }
+
+        VectorD result = new VectorD(ve);
+        int bits = 64 - Long.numberOfLeadingZeros(k);
+        synchronized (squares) {
+            // each missing square costs n³, as much as n products with the vector
+            if (k < (long) (bits - squares.size()) * ro) {
+                for (long i = 0; i < k; i++) result = time(result);
+                return result;
+            }
+        }
+
+        // the powers of the matrix commute, so the squares can be applied in any order
+        for (int i = 0; i < bits; i++) {
+            if ((k >> i & 1) != 0) result = times(square(i), result);
+        }
+        return result;
+    }
+
+    // A^(2^i), squaring the last one kept until there
+    private double[][] square(int i){
+        synchronized (squares) {
+            if (squares.isEmpty()) squares.add(ma);
+            while (squares.size() <= i) {
+                double[][] last = squares.get(squares.size() - 1);
+                squares.add(MultiplyD.multiply(last, last));
+            }
+            return squares.get(i);
+        }
+    }
+
+    // whether the matrix is square and 0 outside the main diagonal
+    private boolean diagonal(){
+        for (int i = 0; i < ro; i++) {
+            for (int j = 0; j < co; j++) if (i != j && ma[i][j] != 0) return false;
+        }
+        return true;
+    }
+
+    private void checkPower(long k){
+        if (ro != co) throw new IllegalArgumentException("the matrix must be square");
+        if (k < 0) throw new IllegalArgumentException("the power must not be negative");
+    }
+
+    // multiply a matrix given as 2D array by a vector
+    private static VectorD times(double[][] a, VectorD that){
+        double[] ve = that.toArray();
+        double[] result = new double[a.length];
+        for (int i = 0; i < a.length; i++) {
+            double sum = 0;
+            for (int j = 0; j < ve.length; j++) sum += a[i][j] * ve[j];
+            result[i] = sum;
+        }
+        return new VectorD(result);
+    }
+
     // test client
     public static void main(String[] args) {
         MatrixD a = new MatrixD(new double[][]{{2,3,4}, {-1,5,-3}, {6,-2,8}});
@@ -0,0 +1,269 @@
+package com.matrixCaculator;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * what one scan finds about the coefficients of an augmented matrix, all its columns but the last,
+ * used by {@code sol()} of {@link MatrixD} and {@link MatrixBD} to pick the cheapest path
+ * <p>triangular, diagonal and symmetric only apply to square coefficients
+ */
+public final class MatrixStructure {
+
+    /**the ways {@code sol()} can solve a matrix, from the cheapest
+     */
+    public enum Path {
+        // the coefficients are diagonal
+        DIAGONAL,
+        // the coefficients are upper or lower triangular, solved by substitution without elimination
+        TRIANGULAR,
+        // the rows can be reordered to triangular coefficients, solved by substitution without elimination
+        PERMUTED_TRIANGULAR,
+        // the nonzero coefficients are near the diagonal, solved by a banded matrix
+        BANDED,
+        // the coefficients are symmetric positive definite, solved by a Cholesky factorization
+        CHOLESKY,
+        // the coefficients and constants are integers, solved exactly by fraction-free elimination
+        INTEGER,
+        // few coefficients are nonzero, solved by a sparse matrix
+        SPARSE,
+        // the general elimination of RREF()
+        RREF
+    }
+
+    // a band this narrow compared with the size is worth a banded matrix
+    static final int BAND_RATIO = 4;
+
+    // a density below 1 / SPARSE_RATIO, in a matrix of at least SPARSE_ROWS rows, is worth a sparse matrix
+    static final int SPARSE_RATIO = 10, SPARSE_ROWS = 16;
+
+    private final int ro, columns;
+    private final long nonZeros;
+    private final int lowerBandwidth, upperBandwidth;
+    private final boolean symmetric, integer, diagonalNonZero, positiveDiagonal;
+
+    // row of the k-th equation of the reordered triangular system, null if there is none
+    private final int[] upperOrder, lowerOrder;
+
+    private MatrixStructure(int ro, int columns, long nonZeros, int lowerBandwidth, int upperBandwidth, boolean symmetric, boolean integer,
+                            boolean diagonalNonZero, boolean positiveDiagonal, int[] upperOrder, int[] lowerOrder) {
+        this.ro = ro;
+        this.columns = columns;
+        this.nonZeros = nonZeros;
+        this.lowerBandwidth = lowerBandwidth;
+        this.upperBandwidth = upperBandwidth;
+        this.symmetric = symmetric;
+        this.integer = integer;
+        this.diagonalNonZero = diagonalNonZero;
+        this.positiveDiagonal = positiveDiagonal;
+        this.upperOrder = upperOrder;
+        this.lowerOrder = lowerOrder;
+    }
+
+    // scan an augmented matrix of doubles
+    static MatrixStructure of(double[][] ma) {
+        int ro = ma.length, columns = ma[0].length - 1;
+        boolean square = ro == columns, symmetric = square, integer = true, diagonalNonZero = square, positiveDiagonal = square;
+        long nonZeros = 0;
+        int lower = 0, upper = 0;
+        int[] first = new int[ro], last = new int[ro];
+        for (int i = 0; i < ro; i++) {
+            first[i] = -1;
+            last[i] = -1;
+            for (int j = 0; j <= columns; j++) {
+                double value = ma[i][j];
+                if (integer && value != Math.rint(value)) integer = false;
+                // compared before zeros are skipped, so a zero against a nonzero mirror is caught
+                if (symmetric && j < i && value != ma[j][i]) symmetric = false;
+                if (j == columns || value == 0) continue;
+                nonZeros++;
+                if (first[i] < 0) first[i] = j;
+                last[i] = j;
+                lower = Math.max(lower, i - j);
+                upper = Math.max(upper, j - i);
+            }
+            if (square) {
+                if (ma[i][i] == 0) diagonalNonZero = false;
+                if (!(ma[i][i] > 0)) positiveDiagonal = false;
+            }
+        }
+        return new MatrixStructure(ro, columns, nonZeros, lower, upper, symmetric, integer, diagonalNonZero, positiveDiagonal,
+                order(first, columns), order(last, columns));
+    }
+
+    // scan an augmented matrix of big decimals
+    static MatrixStructure of(MatrixBD matrix) {
+        int ro = matrix.ro(), columns = matrix.co() - 1;
+        boolean square = ro == columns, symmetric = square, integer = true, diagonalNonZero = square, positiveDiagonal = square;
+        long nonZeros = 0;
+        int lower = 0, upper = 0;
+        int[] first = new int[ro], last = new int[ro];
+        for (int i = 0; i < ro; i++) {
+            first[i] = -1;
+            last[i] = -1;
+            for (int j = 0; j <= columns; j++) {
+                BigDecimal value = matrix.entry(i, j);
+                // compared before zeros are skipped, so a zero against a nonzero mirror is caught
+                if (symmetric && j < i && value.compareTo(matrix.entry(j, i)) != 0) symmetric = false;
+                if (value.signum() == 0) continue;
+                if (integer && value.scale() > 0 && value.stripTrailingZeros().scale() > 0) integer = false;
+                if (j == columns) continue;
+                nonZeros++;
+                if (first[i] < 0) first[i] = j;
+                last[i] = j;
+                lower = Math.max(lower, i - j);
+                upper = Math.max(upper, j - i);
+            }
+            if (square) {
+                int sign = matrix.entry(i, i).signum();
+                if (sign == 0) diagonalNonZero = false;
+                if (sign <= 0) positiveDiagonal = false;
+            }
+        }
+        return new MatrixStructure(ro, columns, nonZeros, lower, upper, symmetric, integer, diagonalNonZero, positiveDiagonal,
+                order(first, columns), order(last, columns));
+    }
+
+    // if every row has a different leading (or trailing) column, and there are as many rows as columns,
+    // the row with leading column k is the k-th equation of a triangular system
+    private static int[] order(int[] column, int columns) {
+        if (column.length != columns) return null;
+        int[] order = new int[columns];
+        Arrays.fill(order, -1);
+        for (int i = 0; i < column.length; i++) {
+            if (column[i] < 0 || order[column[i]] >= 0) return null;
+            order[column[i]] = i;
+        }
+        return order;
+    }
+
+    /**
+     * @return number of rows
+     */
+    public int ro(){
+        return ro;
+    }
+
+    /**
+     * @return number of coefficient columns, all but the last
+     */
+    public int columns(){
+        return columns;
+    }
+
+    /**
+     * @return whether there are as many rows as coefficient columns
+     */
+    public boolean square(){
+        return ro == columns;
+    }
+
+    /**
+     * @return number of nonzero coefficients
+     */
+    public long nonZeros(){
+        return nonZeros;
+    }
+
+    /**
+     * @return the share of nonzero coefficients, from 0 to 1
+     */
+    public double density(){
+        return columns == 0 ? 0 : (double) nonZeros / ((long) ro * columns);
+    }
+
+    /**
+     * @return number of nonzero diagonals below the main one
+     */
+    public int lowerBandwidth(){
+        return lowerBandwidth;
+    }
+
+    /**
+     * @return number of nonzero diagonals above the main one
+     */
+    public int upperBandwidth(){
+        return upperBandwidth;
+    }
+
+    /**
+     * @return whether the coefficients are square and 0 outside the main diagonal
+     */
+    public boolean diagonal(){
+        return square() && lowerBandwidth == 0 && upperBandwidth == 0;
+    }
+
+    /**
+     * @return whether the coefficients are square and 0 below the main diagonal
+     */
+    public boolean upperTriangular(){
+        return square() && lowerBandwidth == 0;
+    }
+
+    /**
+     * @return whether the coefficients are square and 0 above the main diagonal
+     */
+    public boolean lowerTriangular(){
+        return square() && upperBandwidth == 0;
+    }
+
+    /**
+     * @return whether the rows can be reordered so the coefficients are triangular with no 0 on the diagonal
+     */
+    public boolean permutedTriangular(){
+        return upperOrder != null || lowerOrder != null;
+    }
+
+    /**
+     * @return whether the coefficients are square and symmetric
+     */
+    public boolean symmetric(){
+        return symmetric;
+    }
+
+    /**
+     * @return whether all the entries, constants included, are integers
+     */
+    public boolean integer(){
+        return integer;
+    }
+
+    /**
+     * @return whether the coefficients are square with no 0 on the main diagonal
+     */
+    public boolean diagonalNonZero(){
+        return diagonalNonZero;
+    }
+
+    // whether the coefficients are square with only positive entries on the main diagonal, needed to be positive definite
+    boolean positiveDiagonal(){
+        return positiveDiagonal;
+    }
+
+    // whether the band is narrow enough to be worth a banded matrix
+    boolean narrowBand(){
+        return square() && (long) (lowerBandwidth + upperBandwidth + 1) * BAND_RATIO <= columns;
+    }
+
+    // whether the density is low enough to be worth a sparse matrix
+    boolean sparse(){
+        return ro >= SPARSE_ROWS && nonZeros * SPARSE_RATIO < (long) ro * columns;
+    }
+
+    // the rows in the order of an upper triangular system, null if there is none
+    int[] upperOrder(){
+        return upperOrder;
+    }
+
+    // the rows in the order of a lower triangular system, null if there is none
+    int[] lowerOrder(){
+        return lowerOrder;
+    }
+
+    // to string
+    public String toString() {
+        return ro + "x" + columns + ", density " + density() + ", bandwidths " + lowerBandwidth + "/" + upperBandwidth
+                + (diagonal() ? ", diagonal" : upperTriangular() ? ", upper triangular" : lowerTriangular() ? ", lower triangular" : permutedTriangular() ? ", permuted triangular" : "")
+                + (symmetric ? ", symmetric" : "") + (integer ? ", integer" : "");
+    }
+}
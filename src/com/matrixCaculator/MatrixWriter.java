@@ -0,0 +1,236 @@
+package com.matrixCaculator;
+
+import com.vectorCalculation.VectorBD;
+import com.vectorCalculation.VectorD;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * write matrices, vectors and solution sets as text, row by row, through a buffer of fixed size
+ * <p>unlike {@code toString()}, nothing is built for the whole matrix, so the memory used does not depend on its size
+ * <p>each row of a matrix, and each vector, is one line; entries are written in plain decimal (never with an exponent),
+ * doubles that are not finite as NaN, Infinity or -Infinity, separated by commas ({@link Style#CSV}) or spaces ({@link Style#PLAIN})
+ */
+public final class MatrixWriter implements Closeable, Flushable {
+
+    /**how entries are separated
+     */
+    public enum Style {
+        CSV(','), PLAIN(' ');
+
+        private final char separator;
+
+        Style(char separator) {
+            this.separator = separator;
+        }
+    }
+
+    // where the text goes
+    private final Writer out;
+
+    private final Style style;
+
+    // text not written yet
+    private final char[] buffer;
+    private int count = 0;
+
+    /**
+     * @param out where to write
+     * @param style how to separate entries
+     * @param bufferSize number of characters kept before writing to out
+     */
+    public MatrixWriter(Writer out, Style style, int bufferSize) {
+        if (out == null || style == null) throw new IllegalArgumentException("the writer and the style must not be null");
+        if (bufferSize <= 0) throw new IllegalArgumentException("the buffer size must be greater than 0");
+        this.out = out;
+        this.style = style;
+        buffer = new char[bufferSize];
+    }
+
+    /**a writer keeping 8192 characters before writing to out
+     * @param out where to write
+     * @param style how to separate entries
+     */
+    public MatrixWriter(Writer out, Style style) {
+        this(out, style, 8192);
+    }
+
+    /**a writer of UTF-8 text keeping 8192 characters before writing to out
+     * @param out where to write
+     * @param style how to separate entries
+     */
+    public MatrixWriter(OutputStream out, Style style) {
+        this(new OutputStreamWriter(out, StandardCharsets.UTF_8), style);
+    }
+
+    /**write all rows of a matrix
+     * @param matrix the matrix to write
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public MatrixWriter write(MatrixBD matrix) throws IOException {
+        for (int i = 0; i < matrix.ro(); i++) {
+            for (int j = 0; j < matrix.co(); j++) {
+                if (j > 0) put(style.separator);
+                put(matrix.entry(i, j));
+            }
+            put('\n');
+        }
+        return this;
+    }
+
+    /**write all rows of a matrix
+     * @param matrix the matrix to write
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public MatrixWriter write(MatrixD matrix) throws IOException {
+        for (double[] row : matrix.toArray()) {
+            for (int j = 0; j < row.length; j++) {
+                if (j > 0) put(style.separator);
+                put(row[j]);
+            }
+            put('\n');
+        }
+        return this;
+    }
+
+    /**write a vector as one line
+     * @param vector the vector to write
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public MatrixWriter write(VectorBD vector) throws IOException {
+        BigDecimal[] ve = vector.toArray();
+        for (int i = 0; i < ve.length; i++) {
+            if (i > 0) put(style.separator);
+            put(ve[i]);
+        }
+        put('\n');
+        return this;
+    }
+
+    /**write a vector as one line
+     * @param vector the vector to write
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public MatrixWriter write(VectorD vector) throws IOException {
+        double[] ve = vector.toArray();
+        for (int i = 0; i < ve.length; i++) {
+            if (i > 0) put(style.separator);
+            put(ve[i]);
+        }
+        put('\n');
+        return this;
+    }
+
+    /**write the solutions of a matrix, as given by {@link MatrixBD#sol()} and {@link MatrixBD#freeVar()}
+     * <p>each vector is one line led by its name: {@code sol} for the solution with all free variables 0,
+     * then {@code x1}, {@code x2}... for the vector multiplied by each free variable; no solution is the line {@code none}
+     * @param sol the solutions, null if there is none
+     * @param freeVar the free variables
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public MatrixWriter writeSol(VectorBD[] sol, Integer[] freeVar) throws IOException {
+        if (sol == null) {
+            put("none");
+            put('\n');
+            return this;
+        }
+        for (int i = 0; i < sol.length; i++) {
+            put(i == 0 ? "sol" : "x" + (freeVar[i - 1] + 1));
+            put(style.separator);
+            write(sol[i]);
+        }
+        return this;
+    }
+
+    /**write an empty line, for example between two matrices
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public MatrixWriter newLine() throws IOException {
+        put('\n');
+        return this;
+    }
+
+    /**write the buffer and flush the underlying writer
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    /**write the buffer and close the underlying writer
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void put(BigDecimal value) throws IOException {
+        put(value.toPlainString());
+    }
+
+    // plain decimal from the shortest digits that give back the double, so 1e-5 is 0.000010 and not 1.0E-5
+    private void put(double value) throws IOException {
+        if (Double.isNaN(value)) put("NaN");
+        else if (Double.isInfinite(value)) put(value > 0 ? "Infinity" : "-Infinity");
+        else put(BigDecimal.valueOf(value).toPlainString());
+    }
+
+    private void put(String text) throws IOException {
+        int length = text.length();
+        if (length > buffer.length - count) {
+            drain();
+            // longer than the whole buffer, write it directly
+            if (length > buffer.length) {
+                out.write(text);
+                return;
+            }
+        }
+        text.getChars(0, length, buffer, count);
+        count += length;
+    }
+
+    private void put(char c) throws IOException {
+        if (count == buffer.length) drain();
+        buffer[count++] = c;
+    }
+
+    // write the buffer to out
+    private void drain() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    // test client
+    public static void main(String[] args) throws IOException {
+        MatrixBD b = new MatrixBD(new int[][]{{1,6,2,-5,-2,-4}, {0,0,2,-8,-1,3}, {0,0,0,0,1,7}});
+        MatrixWriter writer = new MatrixWriter(System.out, Style.CSV);
+        writer.write(b.RREF()).newLine().writeSol(b.sol(), b.freeVar()).newLine();
+        writer.flush();
+
+        writer = new MatrixWriter(System.out, Style.PLAIN);
+        writer.write(new MatrixD(new double[][]{{2,3,4}, {-1,5,-3}, {6,-2,8}}).RREF());
+        writer.flush();
+    }
+}
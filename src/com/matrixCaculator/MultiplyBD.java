@@ -0,0 +1,153 @@
+package com.matrixCaculator;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * matrix-matrix multiplication kernels for big decimal matrices
+ * <p>above the cutoff, the product is computed with the Strassen-Winograd recursion,
+ * which uses 7 sub-products and 15 additions instead of 8 sub-products and 4 additions;
+ * as a big decimal multiplication costs much more than an addition, this pays off early
+ * <p>all arithmetic is exact, so the result does not depend on the cutoff
+ */
+final class MultiplyBD {
+
+    // below this size in any dimension, use the classic triple loop
+    private static volatile int cutoff = 64;
+
+    // below this size in any dimension, run the 7 sub-products sequentially
+    private static final int PARALLEL_CUTOFF = 96;
+
+    private MultiplyBD() {
+    }
+
+    static int cutoff() {
+        return cutoff;
+    }
+
+    static void setCutoff(int newCutoff) {
+        if (newCutoff < 1) throw new IllegalArgumentException("the cutoff must be at least 1");
+        cutoff = newCutoff;
+    }
+
+    /**multiply two matrices given as 2D arrays
+     * @param a the left matrix, m by k
+     * @param b the right matrix, k by n
+     * @param multiplications where to count the big decimal multiplications, null to not count
+     * @return the product, m by n
+     */
+    static BigDecimal[][] multiply(BigDecimal[][] a, BigDecimal[][] b, LongAdder multiplications) {
+        if (Math.min(a.length, Math.min(b.length, b[0].length)) <= cutoff) return classic(a, b, multiplications);
+        return ForkJoinPool.commonPool().invoke(new Product(a, b, multiplications));
+    }
+
+    // the classic triple loop, skipping zero entries of the left matrix
+    static BigDecimal[][] classic(BigDecimal[][] a, BigDecimal[][] b, LongAdder multiplications) {
+        int m = a.length, k = b.length, n = b[0].length;
+        long count = 0;
+        BigDecimal[][] c = new BigDecimal[m][n];
+        BigDecimal aik;
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) c[i][j] = BigDecimal.ZERO;
+            for (int l = 0; l < k; l++) {
+                aik = a[i][l];
+                if (aik.signum() == 0) continue;
+                for (int j = 0; j < n; j++) c[i][j] = c[i][j].add(aik.multiply(b[l][j]));
+                count += n;
+            }
+        }
+        if (multiplications != null) multiplications.add(count);
+        return c;
+    }
+
+    // the Strassen-Winograd recursion
+    private static BigDecimal[][] strassen(BigDecimal[][] a, BigDecimal[][] b, LongAdder multiplications) {
+        int m = a.length, k = b.length, n = b[0].length;
+        if (Math.min(m, Math.min(k, n)) <= cutoff) return classic(a, b, multiplications);
+
+        // half sizes, rounded up so odd dimensions are padded with 0s
+        int m2 = (m + 1) / 2, k2 = (k + 1) / 2, n2 = (n + 1) / 2;
+
+        BigDecimal[][] a11 = quarter(a, 0, 0, m2, k2), a12 = quarter(a, 0, k2, m2, k2);
+        BigDecimal[][] a21 = quarter(a, m2, 0, m2, k2), a22 = quarter(a, m2, k2, m2, k2);
+        BigDecimal[][] b11 = quarter(b, 0, 0, k2, n2), b12 = quarter(b, 0, n2, k2, n2);
+        BigDecimal[][] b21 = quarter(b, k2, 0, k2, n2), b22 = quarter(b, k2, n2, k2, n2);
+
+        // sums of the left quarters
+        BigDecimal[][] s1 = add(a21, a22), s2 = sub(s1, a11), s3 = sub(a11, a21), s4 = sub(a12, s2);
+
+        // differences of the right quarters
+        BigDecimal[][] t1 = sub(b12, b11), t2 = sub(b22, t1), t3 = sub(b22, b12), t4 = sub(t2, b21);
+
+        // the 7 sub-products
+        Product[] p = new Product[]{
+                new Product(a11, b11, multiplications), new Product(a12, b21, multiplications),
+                new Product(s4, b22, multiplications), new Product(a22, t4, multiplications),
+                new Product(s1, t1, multiplications), new Product(s2, t2, multiplications),
+                new Product(s3, t3, multiplications)};
+        if (Math.min(m, Math.min(k, n)) >= PARALLEL_CUTOFF) ForkJoinTask.invokeAll(p);
+        else for (Product product : p) product.invoke();
+
+        BigDecimal[][] p1 = p[0].join(), p2 = p[1].join(), p3 = p[2].join(), p4 = p[3].join();
+        BigDecimal[][] p5 = p[4].join(), p6 = p[5].join(), p7 = p[6].join();
+
+        // combine them
+        BigDecimal[][] u2 = add(p1, p6), u3 = add(u2, p7), u4 = add(u2, p5);
+        BigDecimal[][] c11 = add(p1, p2), c12 = add(u4, p3), c21 = sub(u3, p4), c22 = add(u3, p5);
+
+        // assemble the result, dropping the padding
+        BigDecimal[][] c = new BigDecimal[m][n];
+        for (int i = 0; i < m; i++) {
+            BigDecimal[] left = i < m2 ? c11[i] : c21[i - m2], right = i < m2 ? c12[i] : c22[i - m2];
+            System.arraycopy(left, 0, c[i], 0, n2);
+            System.arraycopy(right, 0, c[i], n2, n - n2);
+        }
+        return c;
+    }
+
+    // copy a rows by cols block starting at (r0, c0), filling with 0s outside the source
+    private static BigDecimal[][] quarter(BigDecimal[][] x, int r0, int c0, int rows, int cols) {
+        BigDecimal[][] result = new BigDecimal[rows][cols];
+        int xr = x.length, xc = x[0].length;
+        for (int i = 0; i < rows; i++) {
+            int available = r0 + i < xr ? Math.max(0, Math.min(cols, xc - c0)) : 0;
+            if (available > 0) System.arraycopy(x[r0 + i], c0, result[i], 0, available);
+            for (int j = available; j < cols; j++) result[i][j] = BigDecimal.ZERO;
+        }
+        return result;
+    }
+
+    private static BigDecimal[][] add(BigDecimal[][] x, BigDecimal[][] y) {
+        BigDecimal[][] result = new BigDecimal[x.length][x[0].length];
+        for (int i = 0; i < x.length; i++) for (int j = 0; j < x[0].length; j++) result[i][j] = x[i][j].add(y[i][j]);
+        return result;
+    }
+
+    private static BigDecimal[][] sub(BigDecimal[][] x, BigDecimal[][] y) {
+        BigDecimal[][] result = new BigDecimal[x.length][x[0].length];
+        for (int i = 0; i < x.length; i++) for (int j = 0; j < x[0].length; j++) result[i][j] = x[i][j].subtract(y[i][j]);
+        return result;
+    }
+
+    // one sub-product, so it can be forked
+    private static final class Product extends RecursiveTask<BigDecimal[][]> {
+        private static final long serialVersionUID = 1L;
+
+        private final BigDecimal[][] a, b;
+        private final LongAdder multiplications;
+
+        Product(BigDecimal[][] a, BigDecimal[][] b, LongAdder multiplications) {
+            this.a = a;
+            this.b = b;
+            this.multiplications = multiplications;
+        }
+
+        @Override
+        protected BigDecimal[][] compute() {
+            return strassen(a, b, multiplications);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.matrixCaculator;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * the matrix-matrix multiplication kernel for double matrices
+ * <p>each row of the result is built from contiguous runs of the right matrix (the i-k-j order),
+ * which the JIT can turn into SIMD instructions, and the rows are computed in parallel for large products
+ */
+final class MultiplyD {
+
+    // below this many multiplications, compute all the rows sequentially
+    private static final long PARALLEL_WORK = 1L << 18;
+
+    // number of rows a task computes without splitting
+    private static final int ROWS = 16;
+
+    private MultiplyD() {
+    }
+
+    /**multiply two matrices given as 2D arrays
+     * @param a the left matrix, m by k
+     * @param b the right matrix, k by n
+     * @return the product, m by n
+     */
+    static double[][] multiply(double[][] a, double[][] b) {
+        int m = a.length, n = b[0].length;
+        double[][] c = new double[m][n];
+        if ((long) m * b.length * n < PARALLEL_WORK) rows(a, b, c, 0, m);
+        else ForkJoinPool.commonPool().invoke(new Rows(a, b, c, 0, m));
+        return c;
+    }
+
+    // rows from r0 to r1 of the product, skipping zero entries of the left matrix
+    private static void rows(double[][] a, double[][] b, double[][] c, int r0, int r1) {
+        int k = b.length, n = b[0].length;
+        for (int i = r0; i < r1; i++) {
+            double[] row = c[i];
+            for (int l = 0; l < k; l++) {
+                double ail = a[i][l];
+                if (ail == 0) continue;
+                double[] bl = b[l];
+                for (int j = 0; j < n; j++) row[j] += ail * bl[j];
+            }
+        }
+    }
+
+    // rows from r0 to r1, split in halves until small
+    private static final class Rows extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final double[][] a, b, c;
+        private final int r0, r1;
+
+        Rows(double[][] a, double[][] b, double[][] c, int r0, int r1) {
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            this.r0 = r0;
+            this.r1 = r1;
+        }
+
+        @Override
+        protected void compute() {
+            if (r1 - r0 <= ROWS) {
+                rows(a, b, c, r0, r1);
+                return;
+            }
+            int middle = (r0 + r1) >>> 1;
+            invokeAll(new Rows(a, b, c, r0, middle), new Rows(a, b, c, middle, r1));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.matrixCaculator;
+
+import com.vectorCalculation.VectorBD;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * the solutions of a matrix of big decimals, from {@link MatrixBD#nullSpace()}:
+ * a particular solution plus any combination of a basis of the null space, one basis vector per free variable
+ * <p>the solution at the free variables t is particular + t[0] * basis[0] + ... + t[nullity - 1] * basis[nullity - 1];
+ * {@link #solutions(MatrixBD)} evaluates many such t in one matrix product
+ */
+public final class NullSpaceBD {
+
+    // number of unknowns, number of free variables
+    private final int n, nullity;
+
+    // the solution with all free variables 0
+    private final BigDecimal[] particular;
+
+    // the basis of the null space, row k the direction of free variable k, null if there is none
+    private final MatrixBD basis;
+
+    // the column of each free variable
+    // map each column to its index among the free variables, -1 for the base variables
+    private final int[] freeColumn, freeIndex;
+
+    // build from the result of sol(), which is not null
+    NullSpaceBD(VectorBD[] solution) {
+        particular = solution[0].toArray().clone();
+        n = particular.length;
+        nullity = solution.length - 1;
+
+        freeColumn = new int[nullity];
+        freeIndex = new int[n];
+        Arrays.fill(freeIndex, -1);
+        BigDecimal[][] directions = new BigDecimal[nullity][];
+        for (int k = 0; k < nullity; k++) {
+            directions[k] = solution[k + 1].toArray().clone();
+
+            // a base variable only depends on the free variables to the right of its pivot,
+            // so the last nonzero entry of a direction is the 1 of its own free variable
+            int column = n - 1;
+            while (directions[k][column].signum() == 0) column--;
+            freeColumn[k] = column;
+            freeIndex[column] = k;
+        }
+        basis = nullity == 0 ? null : new MatrixBD(directions);
+    }
+
+    /**
+     * @return number of unknowns, the dimension of each solution
+     */
+    public int dim(){
+        return n;
+    }
+
+    /**
+     * @return number of free variables, the dimension of the null space
+     */
+    public int nullity(){
+        return nullity;
+    }
+
+    /**
+     * @return the solution with all free variables 0
+     */
+    public VectorBD particular(){
+        return new VectorBD(particular);
+    }
+
+    /**
+     * @return the basis of the null space as a matrix of {@link #nullity()} rows, row k the direction of free variable k,
+     * null if the solution is unique
+     */
+    public MatrixBD basis(){
+        return basis;
+    }
+
+    /**
+     * @return the columns of the free variables, from left to right
+     */
+    public Integer[] freeVar(){
+        Integer[] result = new Integer[nullity];
+        for (int k = 0; k < nullity; k++) result[k] = freeColumn[k];
+        return result;
+    }
+
+    /**
+     * @param column the column of an unknown
+     * @return the index of the unknown among the free variables, -1 if it is a base variable
+     */
+    public int freeIndex(int column){
+        if (column < 0 || column >= n) throw new IndexOutOfBoundsException("no unknown at " + column);
+        return freeIndex[column];
+    }
+
+    // evaluate
+    /**the solution at one value of the free variables
+     * @param assignment the values of the free variables, in the order of {@link #freeVar()}
+     * @return the solution at those values
+     */
+    public VectorBD solution(VectorBD assignment){
+        if (assignment == null) throw new NullPointerException("assignment cannot be null");
+        if (assignment.dim() != nullity) throw new IllegalArgumentException("the number of dimensions of the vector must equal to the number of free variables");
+        BigDecimal[] t = assignment.toArray();
+        BigDecimal[] result = particular.clone();
+        for (int k = 0; k < nullity; k++) {
+            if (t[k].signum() == 0) continue;
+            for (int j = 0; j < n; j++) {
+                BigDecimal value = basis.entry(k, j);
+                if (value.signum() != 0) result[j] = result[j].add(t[k].multiply(value));
+            }
+        }
+        return new VectorBD(result);
+    }
+
+    /**the solutions at many values of the free variables, as one product with the basis
+     * @param assignments a matrix of {@link #nullity()} columns, each row the values of the free variables for one solution
+     * @return a matrix of {@link #dim()} columns, each row the solution for the same row of assignments
+     */
+    public MatrixBD solutions(MatrixBD assignments){
+        if (assignments == null) throw new NullPointerException("assignments cannot be null");
+        if (assignments.co() != nullity) throw new IllegalArgumentException("the number of columns of the matrix must equal to the number of free variables");
+        int m = assignments.ro();
+        if (nullity == 0) {
+            BigDecimal[][] result = new BigDecimal[m][];
+            for (int i = 0; i < m; i++) result[i] = particular.clone();
+            return new MatrixBD(result);
+        }
+
+        // the product is a new matrix, so the particular solution is added in place
+        MatrixBD result = assignments.time(basis);
+        BigDecimal[][] array = result.toArray();
+        for (int j = 0; j < n; j++) {
+            if (particular[j].signum() == 0) continue;
+            for (int i = 0; i < m; i++) array[i][j] = array[i][j].add(particular[j]);
+        }
+        return result;
+    }
+
+    // to string
+    public String toString() {
+        StringBuilder result = new StringBuilder(Arrays.toString(particular));
+        for (int k = 0; k < nullity; k++) result.append(" + x").append(freeColumn[k] + 1).append(" * ").append(Arrays.toString(basis.toArray()[k]));
+        return result.toString();
+    }
+
+    // test client
+    public static void main(String[] args) {
+        MatrixBD a = new MatrixBD(new int[][]{{2, 12, 10, -34, -3, 29}, {-1, -6, 8, -35, -6, -2}, {6, 36, 8, -14, -2, 26}});
+        NullSpaceBD space = a.nullSpace();
+        System.out.println(space);
+        System.out.println(Arrays.toString(space.freeVar()) + " " + space.freeIndex(1) + " " + space.freeIndex(2));
+        System.out.println(space.solution(new VectorBD(new int[]{1, 2})));
+        System.out.println(space.solutions(new MatrixBD(new int[][]{{0, 0}, {1, 2}, {-1, 3}})));
+    }
+}
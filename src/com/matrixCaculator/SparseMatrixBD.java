@@ -0,0 +1,325 @@
+package com.matrixCaculator;
+
+import com.vectorCalculation.VectorBD;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * a sparse big decimal matrix with its own elimination engine
+ * <p>only nonzero entries are stored, both by row and by column; the elimination skips zero entries entirely
+ * and picks, in each column, the pivot row with the fewest nonzero entries (the Markowitz choice for a fixed column),
+ * which keeps the fill-in low on sparse systems
+ * <p>rows are scaled to integers and eliminated without division, so the rank and free variables are exact;
+ * the only rounding is when the pivots are made 1 at the end
+ * <p>the columns are still processed from left to right, so rank, {@link #freeVar()} and {@link #sol()}
+ * follow the same parametrization as {@link MatrixBD}
+ */
+public class SparseMatrixBD {
+
+    // row and column
+    private final int ro, co;
+
+    // for the big decimal calculation, we need a math context
+    private final MathContext mc = MathContext.DECIMAL128;
+
+    // store the nonzero entries by row, column index to value
+    private final ArrayList<TreeMap<Integer, BigDecimal>> ma = new ArrayList<>();
+
+    // store RREF by row, in the order of the pivots
+    // store solution
+    private ArrayList<TreeMap<Integer, BigDecimal>> rref = null;
+    private BigDecimal[][] sol = null;
+
+    // store RREF pivots
+    // store free variables
+    private final ArrayList<Integer> piC = new ArrayList<>(), freeC = new ArrayList<>();
+
+    // constructor
+    /**create a sparse matrix of 0s
+     * @param rows number of rows
+     * @param columns number of columns
+     */
+    public SparseMatrixBD(int rows, int columns) {
+        if (rows <= 0 || columns <= 0) throw new IllegalArgumentException("the number of rows and columns must be greater than 0");
+        ro = rows;
+        co = columns;
+        for (int i = 0; i < ro; i++) ma.add(new TreeMap<>());
+    }
+
+    /**create a sparse matrix with the nonzero entries of a dense matrix
+     * @param matrix the dense matrix to copy
+     */
+    public SparseMatrixBD(MatrixBD matrix) {
+        this(matrix.ro(), matrix.co());
+        BigDecimal[][] array = matrix.toArray();
+        for (int i = 0; i < ro; i++) {
+            for (int j = 0; j < co; j++) {
+                if (array[i][j].signum() != 0) ma.get(i).put(j, array[i][j]);
+            }
+        }
+    }
+
+    // column
+    /**
+     * @return number of columns of this matrix
+     */
+    public int co(){
+        return co;
+    }
+
+    // row
+    /**
+     * @return number of rows of this matrix
+     */
+    public int ro(){
+        return ro;
+    }
+
+    // number of nonzero entries
+    /**
+     * @return number of nonzero entries stored in this matrix
+     */
+    public int nonZeros(){
+        int result = 0;
+        for (TreeMap<Integer, BigDecimal> row : ma) result += row.size();
+        return result;
+    }
+
+    // get entry
+    /**
+     * @param row the row of the entry
+     * @param column the column of the entry
+     * @return the entry at that row and column
+     */
+    public BigDecimal get(int row, int column){
+        BigDecimal result = ma.get(row).get(column);
+        return result == null ? BigDecimal.ZERO : result;
+    }
+
+    // set entry
+    /**set an entry, dropping any result calculated before
+     * @param row the row of the entry
+     * @param column the column of the entry
+     * @param value the new value of the entry
+     */
+    public void set(int row, int column, BigDecimal value){
+        if (value == null) throw new IllegalArgumentException("the value must not be null");
+        if (column < 0 || column >= co) throw new IndexOutOfBoundsException("column " + column + " out of bounds");
+        if (value.signum() == 0) ma.get(row).remove(column);
+        else ma.get(row).put(column, value);
+        rref = null;
+        sol = null;
+        piC.clear();
+        freeC.clear();
+    }
+
+    // to dense matrix
+    /**
+     * @return a dense matrix with the same entries
+     */
+    public MatrixBD toMatrixBD(){
+        return new MatrixBD(dense(ma, ro));
+    }
+
+    // to string
+    public String toString() {
+        return ma.toString();
+    }
+
+    // simplify the matrix to reduced echelon form
+    /**generate the reduced (row) echelon form of this matrix
+     * <p>the pivot rows come first in the order of their pivot columns, followed by rows of 0s, like {@link MatrixBD#RREF()}
+     * @return the reduced (row) echelon form of this matrix
+     */
+    public MatrixBD RREF(){
+        reduce();
+        return new MatrixBD(dense(rref, ro));
+    }
+
+    // rank
+    /**
+     * @return number of pivots in the reduced echelon form, counting a pivot in the last column of an inconsistent system
+     */
+    public int rank(){
+        reduce();
+        return piC.size();
+    }
+
+    // give out the free variables
+    public Integer[] freeVar(){
+        reduce();
+        return freeC.toArray(new Integer[0]);
+    }
+
+    // solve the matrix
+    /**generate all the solutions of the matrix, in the same form as {@link MatrixBD#sol()}
+     * <p></p>if there is no solution, return null
+     * <p>otherwise the first vector is the solution with all free variables 0,
+     * and the rest are the directions to multiply by each free variable
+     * @return all the solutions of the matrix, null if no solution
+     */
+    public VectorBD[] sol(){
+        reduce();
+
+        // no solution when the last pivot is in the last column
+        if (!piC.isEmpty() && piC.get(piC.size() - 1) == co - 1) return null;
+
+        if (sol == null) {
+            // map each free column to its index among the free variables
+            int[] freeIndex = new int[co];
+            Arrays.fill(freeIndex, -1);
+            for (int i = 0; i < freeC.size(); i++) freeIndex[freeC.get(i)] = i;
+
+            // initialize the array of 0s, with the free variables' own places 1
+            BigDecimal[][] result = new BigDecimal[freeC.size() + 1][co - 1];
+            for (BigDecimal[] row : result) Arrays.fill(row, BigDecimal.ZERO);
+            for (int i = 0; i < freeC.size(); i++) result[i + 1][freeC.get(i)] = BigDecimal.ONE;
+
+            // in reduced echelon form, each pivot variable only depends on the constant and the free variables
+            for (int piNow = 0; piNow < piC.size(); piNow++) {
+                int pC = piC.get(piNow);
+                for (Map.Entry<Integer, BigDecimal> entry : rref.get(piNow).tailMap(pC, false).entrySet()) {
+                    if (entry.getKey() == co - 1) result[0][pC] = entry.getValue();
+                    else if (freeIndex[entry.getKey()] >= 0) result[freeIndex[entry.getKey()] + 1][pC] = entry.getValue().negate();
+                }
+            }
+            sol = result;
+        }
+
+        VectorBD[] result = new VectorBD[sol.length];
+        for (int i = 0; i < sol.length; i++) result[i] = new VectorBD(sol[i]);
+        return result;
+    }
+
+    // eliminate the matrix, keeping it sparse
+    private void reduce(){
+        // check if rref is already calculated
+        if (rref != null) return;
+
+        // scale each row to integers so the elimination itself is exact,
+        // and index the rows with a nonzero entry in each column
+        ArrayList<TreeMap<Integer, BigInteger>> work = new ArrayList<>(ro);
+        ArrayList<TreeSet<Integer>> byColumn = new ArrayList<>(co);
+        for (int j = 0; j < co; j++) byColumn.add(new TreeSet<>());
+        for (int i = 0; i < ro; i++) {
+            int scale = 0;
+            for (BigDecimal value : ma.get(i).values()) scale = Math.max(scale, value.scale());
+            TreeMap<Integer, BigInteger> row = new TreeMap<>();
+            for (Map.Entry<Integer, BigDecimal> entry : ma.get(i).entrySet()) {
+                row.put(entry.getKey(), entry.getValue().setScale(scale).unscaledValue());
+                byColumn.get(entry.getKey()).add(i);
+            }
+            work.add(row);
+        }
+
+        // rows already used as pivots, and the pivot row of each pivot
+        boolean[] used = new boolean[ro];
+        ArrayList<Integer> piR = new ArrayList<>();
+
+        // iC: the column being searched, from 0 to (co - 1)
+        for (int iC = 0; iC < co; iC++) {
+            // pick the unused row with the fewest nonzero entries in this column, then the shortest pivot
+            int pR = -1;
+            for (Integer tR : byColumn.get(iC)) {
+                if (used[tR]) continue;
+                if (pR < 0 || work.get(tR).size() < work.get(pR).size()
+                        || work.get(tR).size() == work.get(pR).size() && work.get(tR).get(iC).bitLength() < work.get(pR).get(iC).bitLength()) pR = tR;
+            }
+
+            // no nonzero entry, it is a free variable if not a constant
+            if (pR < 0) {
+                if (iC < co - 1) freeC.add(iC);
+                continue;
+            }
+            used[pR] = true;
+            piC.add(iC);
+            piR.add(pR);
+
+            // eliminate the column from every other row having it, above or below, without division:
+            // row = (pivot * row - entry * pivotRow) / gcd of the new row
+            TreeMap<Integer, BigInteger> pivotRow = work.get(pR);
+            BigInteger pivot = pivotRow.get(iC);
+            for (Integer checkR : byColumn.get(iC).toArray(new Integer[0])) {
+                if (checkR == pR) continue;
+                TreeMap<Integer, BigInteger> row = work.get(checkR);
+                BigInteger tempInt = row.get(iC);
+                BigInteger gcd = pivot.gcd(tempInt);
+                BigInteger rowFactor = pivot.divide(gcd), pivotFactor = tempInt.divide(gcd);
+
+                // entries only in this row are scaled
+                if (!rowFactor.equals(BigInteger.ONE)) row.replaceAll((j, value) -> value.multiply(rowFactor));
+
+                // entries in the pivot row are combined, skipping 0s
+                for (Map.Entry<Integer, BigInteger> entry : pivotRow.entrySet()) {
+                    int j = entry.getKey();
+                    BigInteger old = row.get(j);
+                    BigInteger product = entry.getValue().multiply(pivotFactor);
+                    BigInteger updated = old == null ? product.negate() : old.subtract(product);
+                    if (updated.signum() == 0) {
+                        row.remove(j);
+                        byColumn.get(j).remove(checkR);
+                    } else {
+                        row.put(j, updated);
+                        byColumn.get(j).add(checkR);
+                    }
+                }
+
+                // keep the integers short
+                BigInteger content = BigInteger.ZERO;
+                for (BigInteger value : row.values()) {
+                    content = content.gcd(value);
+                    if (content.equals(BigInteger.ONE)) break;
+                }
+                if (content.compareTo(BigInteger.ONE) > 0) {
+                    BigInteger divisor = content;
+                    row.replaceAll((j, value) -> value.divide(divisor));
+                }
+            }
+        }
+
+        // make pivots 1, which is the only rounding step, and order the rows by pivot, followed by the rows of 0s
+        rref = new ArrayList<>(ro);
+        for (int piNow = 0; piNow < piR.size(); piNow++) {
+            TreeMap<Integer, BigInteger> row = work.get(piR.get(piNow));
+            BigDecimal pivot = new BigDecimal(row.get(piC.get(piNow)));
+            TreeMap<Integer, BigDecimal> reduced = new TreeMap<>();
+            for (Map.Entry<Integer, BigInteger> entry : row.entrySet()) {
+                reduced.put(entry.getKey(), new BigDecimal(entry.getValue()).divide(pivot, mc).stripTrailingZeros());
+            }
+            rref.add(reduced);
+        }
+        while (rref.size() < ro) rref.add(new TreeMap<>());
+    }
+
+    // expand sparse rows to a dense array
+    private BigDecimal[][] dense(ArrayList<TreeMap<Integer, BigDecimal>> rows, int rowCount) {
+        BigDecimal[][] result = new BigDecimal[rowCount][co];
+        for (int i = 0; i < rowCount; i++) {
+            Arrays.fill(result[i], BigDecimal.ZERO);
+            for (Map.Entry<Integer, BigDecimal> entry : rows.get(i).entrySet()) result[i][entry.getKey()] = entry.getValue();
+        }
+        return result;
+    }
+
+    // test client
+    public static void main(String[] args) {
+        MatrixBD dense = new MatrixBD(new int[][]{{0,0,2,-8,-1,3}, {1,6,2,-5,-2,-4}, {0,0,0,0,1,7}});
+        SparseMatrixBD b = new SparseMatrixBD(dense);
+
+        System.out.println(b);
+        System.out.println(b.nonZeros());
+        System.out.println(b.RREF());
+        System.out.println(dense.RREF());
+        System.out.println(b.rank());
+        System.out.println(Arrays.toString(b.freeVar()));
+        System.out.println(Arrays.toString(b.sol()));
+        System.out.println(Arrays.toString(dense.sol()));
+    }
+}
@@ -0,0 +1,318 @@
+package com.matrixCaculator;
+
+import com.vectorCalculation.VectorD;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * the least-squares solution of A x = b over rows of A and b that come one at a time, without keeping them
+ * <p>it keeps only the n by n upper triangular R and the first n entries of Qᵀ b of the QR factorization of the rows so far,
+ * and brings in each row with n Givens rotations, so it takes O(n²) memory and O(n²) per row however many rows come
+ * <p>with a forgetting factor λ below 1, a row that came k rows ago has its square residual weighted by λᵏ,
+ * so the solution follows data that drifts
+ * <p>an accumulator is not shared between threads while rows come: each thread fills its own, and they are {@link #merge merged}
+ */
+public class StreamingLeastSquaresD {
+
+    // below this many multiplications, a batch of rows is brought in sequentially
+    private static final long PARALLEL_WORK = 1L << 20;
+
+    // when the scale of the rows drops below this, it is multiplied into them,
+    // low enough to seldom happen and high enough that the squares in a rotation stay far from overflow
+    private static final double SMALLEST_SCALE = 0x1p-200;
+
+    // number of columns
+    private final int n;
+
+    // λ, and its square root, by which R and Qᵀ b shrink with each row
+    private final double forgetting, root;
+
+    // R, upper triangular, the first n entries of Qᵀ b, and the square of the length of the rest of Qᵀ b, the residual,
+    // each kept divided by scale (the residual by its square), so forgetting a row is one multiplication
+    private final double[][] r;
+    private final double[] z;
+    private double residual = 0;
+    private double scale = 1;
+
+    // number of rows brought in
+    private long count = 0;
+
+    // scratch row for the rotations
+    private final double[] row;
+
+    // constructor
+    /**an accumulator for n unknowns, with all rows weighted the same
+     * @param n the number of columns of A, which is the number of unknowns
+     */
+    public StreamingLeastSquaresD(int n) {
+        this(n, 1);
+    }
+
+    /**an accumulator for n unknowns, forgetting the rows as they get older
+     * @param n the number of columns of A, which is the number of unknowns
+     * @param forgetting λ, from 0 exclusive to 1 inclusive: by how much the weight of each row drops when a new one comes, 1 for no forgetting
+     */
+    public StreamingLeastSquaresD(int n, double forgetting) {
+        if (n <= 0) throw new IllegalArgumentException("the number of columns must be positive");
+        if (!(forgetting > 0 && forgetting <= 1)) throw new IllegalArgumentException("the forgetting factor must be greater than 0 and at most 1");
+        this.n = n;
+        this.forgetting = forgetting;
+        root = Math.sqrt(forgetting);
+        r = new double[n][n];
+        z = new double[n];
+        row = new double[n];
+    }
+
+    // size
+    /**
+     * @return number of columns, which is the number of unknowns
+     */
+    public int co(){
+        return n;
+    }
+
+    /**
+     * @return number of rows brought in, forgotten or not
+     */
+    public long count(){
+        return count;
+    }
+
+    /**
+     * @return the forgetting factor λ
+     */
+    public double forgetting(){
+        return forgetting;
+    }
+
+    // bring in rows
+    /**bring in one row of A x = b
+     * @param coefficients the row of A, of dimension the number of columns
+     * @param constant its entry of b
+     * @return this accumulator
+     */
+    public StreamingLeastSquaresD add(double[] coefficients, double constant){
+        if (coefficients == null) throw new NullPointerException("coefficients cannot be null");
+        if (coefficients.length != n) throw new IllegalArgumentException("the number of coefficients must equal to the number of columns");
+        forget(1);
+        // the row divided by scale, in the units of R
+        double inverse = 1 / scale;
+        for (int j = 0; j < n; j++) row[j] = coefficients[j] * inverse;
+        rotate(row, constant * inverse);
+        count++;
+        return this;
+    }
+
+    /**bring in one row of A x = b
+     * @param coefficients the row of A, of dimension the number of columns
+     * @param constant its entry of b
+     * @return this accumulator
+     */
+    public StreamingLeastSquaresD add(VectorD coefficients, double constant){
+        if (coefficients == null) throw new NullPointerException("coefficients cannot be null");
+        return add(coefficients.toArray(), constant);
+    }
+
+    /**bring in rows of A x = b in order, the first the oldest; a large batch is split between threads and merged
+     * @param coefficients the rows of A, each of dimension the number of columns
+     * @param constants their entries of b
+     * @return this accumulator
+     */
+    public StreamingLeastSquaresD add(double[][] coefficients, double[] constants){
+        if (coefficients == null) throw new NullPointerException("coefficients cannot be null");
+        if (constants == null) throw new NullPointerException("constants cannot be null");
+        if (coefficients.length != constants.length) throw new IllegalArgumentException("the number of constants must equal to the number of rows");
+        if ((long) coefficients.length * n * n < PARALLEL_WORK) {
+            for (int i = 0; i < coefficients.length; i++) add(coefficients[i], constants[i]);
+            return this;
+        }
+        StreamingLeastSquaresD batch = ForkJoinPool.commonPool().invoke(new Rows(coefficients, constants, 0, coefficients.length));
+        forget(batch.count);
+        return merge(batch);
+    }
+
+    /**bring in the rows of A x = b in order, the first the oldest
+     * @param coefficients A, with as many columns as this accumulator
+     * @param constants b, of dimension the rows of A
+     * @return this accumulator
+     */
+    public StreamingLeastSquaresD add(MatrixD coefficients, VectorD constants){
+        if (coefficients == null) throw new NullPointerException("coefficients cannot be null");
+        if (constants == null) throw new NullPointerException("constants cannot be null");
+        if (coefficients.co() != n) throw new IllegalArgumentException("the number of columns of the matrix must equal to the number of columns");
+        return add(coefficients.toArray(), constants.toArray());
+    }
+
+    /**bring in the rows of another accumulator of the same columns, as weighted there, without forgetting any rows of this one,
+     * as if the rows of both had come to one accumulator
+     * @param other the accumulator to merge, which is not changed
+     * @return this accumulator
+     */
+    public StreamingLeastSquaresD merge(StreamingLeastSquaresD other){
+        if (other == null) throw new NullPointerException("other cannot be null");
+        if (other == this) throw new IllegalArgumentException("an accumulator cannot be merged into itself");
+        if (other.n != n) throw new IllegalArgumentException("the numbers of columns must be the same");
+        // the rows of R of the other, which give the same squares of residuals as all its rows
+        double ratio = other.scale / scale;
+        for (int i = 0; i < n; i++) {
+            double[] ri = other.r[i];
+            for (int j = 0; j < i; j++) row[j] = 0;
+            for (int j = i; j < n; j++) row[j] = ri[j] * ratio;
+            rotate(row, other.z[i] * ratio);
+        }
+        residual += other.residual * ratio * ratio;
+        count += other.count;
+        return this;
+    }
+
+    // solve
+    /**find the x minimizing the weighted sum of the squares of the residuals of the rows so far
+     * @return the least-squares solution x
+     * @throws ArithmeticException if the rows so far leave the columns linearly dependent, so there is no single such x
+     */
+    public VectorD solve(){
+        // R x = the first n entries of Qᵀ b, where scale cancels
+        double largest = 0;
+        for (int j = 0; j < n; j++) largest = Math.max(largest, Math.abs(r[j][j]));
+        double tolerance = largest * n * Math.ulp(1.0);
+        double[] x = new double[n];
+        for (int i = n - 1; i >= 0; i--) {
+            if (!(Math.abs(r[i][i]) > tolerance)) throw new ArithmeticException("the columns are linearly dependent over the rows so far");
+            double sum = z[i];
+            for (int j = i + 1; j < n; j++) sum -= r[i][j] * x[j];
+            x[i] = sum / r[i][i];
+        }
+        return new VectorD(x);
+    }
+
+    /**
+     * @return the weighted sum of the squares of the residuals of the rows so far at the least-squares solution
+     */
+    public double residual(){
+        return residual * scale * scale;
+    }
+
+    /**
+     * @return R as a new n by n upper triangular matrix, such that Rᵀ R is Aᵀ A of the rows so far, weighted
+     */
+    public MatrixD R(){
+        double[][] result = new double[n][n];
+        for (int i = 0; i < n; i++) for (int j = i; j < n; j++) result[i][j] = r[i][j] * scale;
+        return new MatrixD(result);
+    }
+
+    // shrink the weight of the rows so far as if k rows had come
+    private void forget(long k) {
+        if (forgetting == 1 || k == 0) return;
+        double factor = k == 1 ? root : Math.pow(root, k);
+        if (factor < SMALLEST_SCALE) {
+            // the rows so far weigh less than the rounding of the rows to come, so they are dropped rather than shrunk to denormals
+            for (double[] ri : r) Arrays.fill(ri, 0);
+            Arrays.fill(z, 0);
+            residual = 0;
+            scale = 1;
+            return;
+        }
+        scale *= factor;
+        if (scale >= SMALLEST_SCALE) return;
+        // multiply the scale in before it underflows
+        for (int i = 0; i < n; i++) for (int j = i; j < n; j++) r[i][j] *= scale;
+        for (int i = 0; i < n; i++) z[i] *= scale;
+        residual *= scale * scale;
+        scale = 1;
+    }
+
+    // rotate a row, in the units of R, into R, and its constant into Qᵀ b, by one Givens rotation per column
+    private void rotate(double[] x, double b) {
+        for (int i = 0; i < n; i++) {
+            double xi = x[i];
+            if (xi == 0) continue;
+            double[] ri = r[i];
+            double rii = ri[i];
+            // the squares only when they neither overflow nor underflow, so h is never 0 for an xi that is not
+            double square = rii * rii + xi * xi;
+            double h = square >= Double.MIN_NORMAL && square <= Double.MAX_VALUE ? Math.sqrt(square) : Math.hypot(rii, xi);
+            double c = rii / h, s = xi / h;
+            ri[i] = h;
+            for (int j = i + 1; j < n; j++) {
+                double rij = ri[j], xj = x[j];
+                ri[j] = c * rij + s * xj;
+                x[j] = c * xj - s * rij;
+            }
+            double zi = z[i];
+            z[i] = c * zi + s * b;
+            b = c * b - s * zi;
+        }
+        // what the rotations leave of the constant is the residual of the row
+        residual += b * b;
+    }
+
+    // rows from i0 to i1 into a new accumulator, split in halves, the older half forgotten by the size of the newer
+    private final class Rows extends RecursiveTask<StreamingLeastSquaresD> {
+        private static final long serialVersionUID = 1L;
+
+        private final double[][] coefficients;
+        private final double[] constants;
+        private final int i0, i1;
+
+        Rows(double[][] coefficients, double[] constants, int i0, int i1) {
+            this.coefficients = coefficients;
+            this.constants = constants;
+            this.i0 = i0;
+            this.i1 = i1;
+        }
+
+        @Override
+        protected StreamingLeastSquaresD compute() {
+            if ((long) (i1 - i0) * n * n < PARALLEL_WORK) {
+                StreamingLeastSquaresD result = new StreamingLeastSquaresD(n, forgetting);
+                for (int i = i0; i < i1; i++) result.add(coefficients[i], constants[i]);
+                return result;
+            }
+            int middle = (i0 + i1) >>> 1;
+            Rows newer = new Rows(coefficients, constants, middle, i1);
+            newer.fork();
+            StreamingLeastSquaresD result = new Rows(coefficients, constants, i0, middle).compute();
+            StreamingLeastSquaresD rest = newer.join();
+            result.forget(rest.count);
+            return result.merge(rest);
+        }
+    }
+
+    // test client
+    public static void main(String[] args) {
+        // fit a line through 4 points, one at a time
+        StreamingLeastSquaresD a = new StreamingLeastSquaresD(2);
+        double[] x = {1, 2, 3, 4}, y = {6, 5, 7, 10};
+        for (int i = 0; i < 4; i++) a.add(new double[]{1, x[i]}, y[i]);
+        System.out.println(a.solve() + " " + a.residual());
+        System.out.println(new MatrixD(new double[][]{{1, 1}, {1, 2}, {1, 3}, {1, 4}}).leastSquares(new VectorD(y)));
+
+        // the same in 2 halves on 2 accumulators, merged
+        StreamingLeastSquaresD first = new StreamingLeastSquaresD(2), second = new StreamingLeastSquaresD(2);
+        for (int i = 0; i < 2; i++) first.add(new double[]{1, x[i]}, y[i]);
+        for (int i = 2; i < 4; i++) second.add(new double[]{1, x[i]}, y[i]);
+        System.out.println(first.merge(second).solve() + " " + first.count());
+
+        // a line whose slope changes from 1 to 3, followed with forgetting
+        StreamingLeastSquaresD drift = new StreamingLeastSquaresD(2, 0.9);
+        for (int i = 0; i < 200; i++) drift.add(new double[]{1, i % 10}, (i < 100 ? 1 : 3) * (i % 10));
+        System.out.println(drift.solve());
+
+        // a batch split between threads gives what the same rows give one by one, with forgetting
+        Random random = new Random(1);
+        double[][] rows = new double[20000][20];
+        double[] constants = new double[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            for (int j = 0; j < 20; j++) rows[i][j] = random.nextGaussian();
+            constants[i] = 3 * rows[i][0] + random.nextGaussian();
+        }
+        StreamingLeastSquaresD sequential = new StreamingLeastSquaresD(20, 0.9);
+        for (int i = 0; i < rows.length; i++) sequential.add(rows[i], constants[i]);
+        StreamingLeastSquaresD batch = new StreamingLeastSquaresD(20, 0.9).add(rows, constants);
+        System.out.println(sequential.solve().min(batch.solve()).mag() + " " + sequential.residual() + " " + batch.residual());
+    }
+}
@@ -0,0 +1,273 @@
+package com.matrixCaculator;
+
+import com.vectorCalculation.VectorD;
+
+import java.util.Arrays;
+
+/**
+ * a square matrix of doubles together with its inverse, kept up to date under rank-one changes
+ * <p>changing one entry, one row or one column updates the inverse with the Sherman-Morrison formula in O(n²),
+ * instead of a new {@link MatrixD#RREF()} in O(n³); every {@link #refactorInterval()} updates,
+ * the inverse is computed again from the matrix to stop rounding errors from building up
+ */
+public class UpdatableMatrixD {
+
+    // size
+    private final int n;
+
+    // store with array
+    // store the inverse, null when the matrix is singular
+    private final double[][] ma;
+    private double[][] inv;
+
+    // updates since the inverse was last computed from the matrix
+    private int updates = 0;
+
+    // refactor after this many updates
+    private int refactorInterval;
+
+    // scratch vectors for the updates
+    private final double[] z, w;
+
+    // constructor
+    /**create an updatable matrix and compute its inverse
+     * @param matrix a square matrix, not augmented
+     */
+    public UpdatableMatrixD(MatrixD matrix) {
+        if (matrix == null) throw new NullPointerException("matrix cannot be null");
+        if (matrix.ro() != matrix.co()) throw new IllegalArgumentException("the matrix must be square");
+        n = matrix.ro();
+        ma = new double[n][n];
+        for (int i = 0; i < n; i++) System.arraycopy(matrix.toArray()[i], 0, ma[i], 0, n);
+        refactorInterval = Math.max(16, n);
+        z = new double[n];
+        w = new double[n];
+        refactor();
+    }
+
+    // size
+    /**
+     * @return number of rows and columns of this matrix
+     */
+    public int dim(){
+        return n;
+    }
+
+    // get entry
+    /**
+     * @param row the row of the entry
+     * @param column the column of the entry
+     * @return the entry at that row and column
+     */
+    public double get(int row, int column){
+        return ma[row][column];
+    }
+
+    /**
+     * @return whether the matrix is singular, in which case there is no inverse to solve with
+     */
+    public boolean singular(){
+        return inv == null;
+    }
+
+    /**
+     * @return number of rank-one updates before the inverse is computed again from the matrix
+     */
+    public int refactorInterval(){
+        return refactorInterval;
+    }
+
+    /**
+     * @param interval number of rank-one updates before the inverse is computed again from the matrix
+     */
+    public void setRefactorInterval(int interval){
+        if (interval <= 0) throw new IllegalArgumentException("the interval must be greater than 0");
+        refactorInterval = interval;
+    }
+
+    // to matrix
+    /**
+     * @return a copy of the current matrix
+     */
+    public MatrixD toMatrixD(){
+        return new MatrixD(ma);
+    }
+
+    /**
+     * @return a copy of the current inverse
+     */
+    public MatrixD inverse(){
+        if (inv == null) throw new ArithmeticException("the matrix is singular");
+        return new MatrixD(inv);
+    }
+
+    // change one entry
+    /**set one entry, updating the inverse in O(n²)
+     * @param row the row of the entry
+     * @param column the column of the entry
+     * @param value the new value of the entry
+     */
+    public void set(int row, int column, double value){
+        double delta = value - ma[row][column];
+        if (delta == 0) return;
+        ma[row][column] = value;
+        if (inv == null || ++updates >= refactorInterval) {
+            refactor();
+            return;
+        }
+        // A + delta e_row e_columnᵀ: z = A⁻¹ e_row delta, wᵀ = e_columnᵀ A⁻¹
+        for (int i = 0; i < n; i++) z[i] = inv[i][row] * delta;
+        System.arraycopy(inv[column], 0, w, 0, n);
+        apply(1 + z[column]);
+    }
+
+    // change one row
+    /**set one row, updating the inverse in O(n²)
+     * @param row the row to set
+     * @param values the new entries of the row
+     */
+    public void setRow(int row, VectorD values){
+        if (values.dim() != n) throw new IllegalArgumentException("the dimension of the row must equal to the size of the matrix");
+        double[] delta = new double[n];
+        for (int j = 0; j < n; j++) delta[j] = values.toArray()[j] - ma[row][j];
+        System.arraycopy(values.toArray(), 0, ma[row], 0, n);
+        if (inv == null || ++updates >= refactorInterval) {
+            refactor();
+            return;
+        }
+        // A + e_row deltaᵀ: z = A⁻¹ e_row, wᵀ = deltaᵀ A⁻¹
+        for (int i = 0; i < n; i++) z[i] = inv[i][row];
+        Arrays.fill(w, 0);
+        for (int k = 0; k < n; k++) {
+            if (delta[k] == 0) continue;
+            for (int j = 0; j < n; j++) w[j] += delta[k] * inv[k][j];
+        }
+        double denominator = 1;
+        for (int j = 0; j < n; j++) denominator += delta[j] * z[j];
+        apply(denominator);
+    }
+
+    // change one column
+    /**set one column, updating the inverse in O(n²)
+     * @param column the column to set
+     * @param values the new entries of the column
+     */
+    public void setColumn(int column, VectorD values){
+        if (values.dim() != n) throw new IllegalArgumentException("the dimension of the column must equal to the size of the matrix");
+        double[] delta = new double[n];
+        for (int i = 0; i < n; i++) {
+            delta[i] = values.toArray()[i] - ma[i][column];
+            ma[i][column] = values.toArray()[i];
+        }
+        if (inv == null || ++updates >= refactorInterval) {
+            refactor();
+            return;
+        }
+        // A + delta e_columnᵀ: z = A⁻¹ delta, wᵀ = e_columnᵀ A⁻¹
+        for (int i = 0; i < n; i++) {
+            z[i] = 0;
+            for (int k = 0; k < n; k++) z[i] += inv[i][k] * delta[k];
+        }
+        System.arraycopy(inv[column], 0, w, 0, n);
+        apply(1 + z[column]);
+    }
+
+    // solve
+    /**solve this matrix times x equals a vector, in O(n²)
+     * @param constants the vector on the right hand side
+     * @return the only solution x
+     */
+    public VectorD sol(VectorD constants){
+        if (constants.dim() != n) throw new IllegalArgumentException("the dimension of the vector must equal to the size of the matrix");
+        if (inv == null) throw new ArithmeticException("the matrix is singular");
+        double[] b = constants.toArray();
+        double[] result = new double[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) result[i] += inv[i][j] * b[j];
+        }
+        return new VectorD(result);
+    }
+
+    /**compute the inverse again from the matrix, with Gauss-Jordan elimination and partial pivoting
+     * <p>this is done automatically every {@link #refactorInterval()} updates, and when an update is too close to singular
+     */
+    public void refactor(){
+        updates = 0;
+
+        // eliminate [A | I] to [I | A⁻¹]
+        double[][] a = new double[n][];
+        double[][] result = new double[n][n];
+        double scale = 0;
+        for (int i = 0; i < n; i++) {
+            a[i] = Arrays.copyOf(ma[i], n);
+            result[i][i] = 1;
+            for (int j = 0; j < n; j++) scale = Math.max(scale, Math.abs(ma[i][j]));
+        }
+        double[] tempArray;
+        double tempDec;
+        for (int iC = 0; iC < n; iC++) {
+            // largest entry in the column as the pivot
+            int pR = iC;
+            for (int tR = iC + 1; tR < n; tR++) if (Math.abs(a[tR][iC]) > Math.abs(a[pR][iC])) pR = tR;
+            if (Math.abs(a[pR][iC]) <= scale * n * Math.ulp(1.0)) {
+                inv = null;
+                return;
+            }
+            tempArray = a[pR]; a[pR] = a[iC]; a[iC] = tempArray;
+            tempArray = result[pR]; result[pR] = result[iC]; result[iC] = tempArray;
+
+            // make pivot 1
+            tempDec = a[iC][iC];
+            for (int j = 0; j < n; j++) {
+                a[iC][j] /= tempDec;
+                result[iC][j] /= tempDec;
+            }
+
+            // eliminate all other rows
+            for (int checkR = 0; checkR < n; checkR++) {
+                if (checkR == iC || a[checkR][iC] == 0) continue;
+                tempDec = a[checkR][iC];
+                for (int j = 0; j < n; j++) {
+                    a[checkR][j] -= a[iC][j] * tempDec;
+                    result[checkR][j] -= result[iC][j] * tempDec;
+                }
+            }
+        }
+        inv = result;
+    }
+
+    // A⁻¹ - z wᵀ / (1 + wᵀ u), the Sherman-Morrison formula
+    private void apply(double denominator){
+        // too close to singular to update safely, compute it again
+        double zMax = 0, wMax = 0;
+        for (int i = 0; i < n; i++) {
+            zMax = Math.max(zMax, Math.abs(z[i]));
+            wMax = Math.max(wMax, Math.abs(w[i]));
+        }
+        if (Math.abs(denominator) <= 1e-10 * Math.max(1, zMax * wMax)) {
+            refactor();
+            return;
+        }
+        for (int i = 0; i < n; i++) {
+            if (z[i] == 0) continue;
+            double factor = z[i] / denominator;
+            for (int j = 0; j < n; j++) inv[i][j] -= factor * w[j];
+        }
+    }
+
+    // test client
+    public static void main(String[] args) {
+        UpdatableMatrixD a = new UpdatableMatrixD(new MatrixD(new double[][]{{2,3,4}, {-1,5,-3}, {6,-2,8}}));
+        VectorD b = new VectorD(new double[]{1,1,1});
+
+        System.out.println(a.sol(b));
+        a.set(0, 0, 3);
+        System.out.println(a.sol(b));
+        System.out.println(Arrays.toString(new MatrixD(new double[][]{{3,3,4,1}, {-1,5,-3,1}, {6,-2,8,1}}).sol()));
+        a.setRow(1, new VectorD(new double[]{1,1,1}));
+        System.out.println(a.sol(b));
+        a.setColumn(2, new VectorD(new double[]{1,0,1}));
+        System.out.println(a.sol(b));
+        System.out.println(a.inverse());
+    }
+}
@@ -0,0 +1,171 @@
+package com.matrixCaculator;
+
+import com.vectorCalculation.VectorD;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * the scratch arrays and results of {@link MatrixD} and {@link VectorD} operations, kept from one use to the next,
+ * for loops that solve many systems of the same size
+ * <p>{@link #RREF(double[][])} and {@link #sol(double[][])} eliminate in arrays kept here and give out arrays kept here;
+ * {@link #vector(int)} hands out vectors to write results into, such as with {@link VectorD#add(VectorD, VectorD)},
+ * which are all handed out again after {@link #reset()}. once the arrays for a size are made, the same work allocates nothing
+ * <p>a result is only valid until the workspace is used for the same operation again, and a vector until the next reset
+ * <p>a workspace is not shared: only the thread that created it may use it
+ */
+public final class WorkspaceD {
+
+    // the thread the workspace belongs to
+    private final Thread owner = Thread.currentThread();
+
+    // the elimination, reset for each matrix of its size
+    private EliminationD elimination = null;
+
+    // the rows of the solutions, and the arrays giving out the first k + 1 of them, made when first needed
+    private double[][] solRows = null;
+    private double[][][] solViews = null;
+    private int[] freeIndex = null;
+
+    // the vectors handed out, the first used of them since the last reset
+    private final ArrayList<VectorD> vectors = new ArrayList<>();
+    private int used = 0;
+
+    // simplify the matrix to reduced echelon form
+    /**generate the reduced (row) echelon form of a matrix, like {@link MatrixD#RREF()}
+     * @param matrix the matrix as 2D array, which is not changed
+     * @return the reduced (row) echelon form, in an array of this workspace
+     */
+    public double[][] RREF(double[][] matrix) {
+        eliminate(matrix);
+        return elimination.rref;
+    }
+
+    // solve the matrix
+    /**generate all the solutions of a matrix, the same values as {@link MatrixD#sol()} when it takes the path of {@link MatrixD#RREF()}
+     * <p>the first row is the solution with all free variables 0, and row k + 1 the direction of free variable {@link #freeVar(int) freeVar(k)}
+     * @param matrix the matrix as 2D array, which is not changed
+     * @return all the solutions, in arrays of this workspace, null if no solution
+     */
+    public double[][] sol(double[][] matrix) {
+        eliminate(matrix);
+        int co = elimination.co, n = co - 1;
+        double[][] rref = elimination.rref;
+        int[] piC = elimination.piC, freeC = elimination.freeC;
+
+        // no solution when the last pivot is in the last column
+        if (elimination.pivots > 0 && piC[elimination.pivots - 1] == n) return null;
+
+        if (solRows == null || solRows[0].length != n) {
+            solRows = new double[co][n];
+            solViews = new double[co][][];
+            freeIndex = new int[co];
+        }
+        int free = elimination.frees;
+        double[][] result = solViews[free];
+        if (result == null) {
+            result = new double[free + 1][];
+            System.arraycopy(solRows, 0, result, 0, free + 1);
+            solViews[free] = result;
+        }
+
+        // where each column is among the free variables, -1 for a pivot column
+        Arrays.fill(freeIndex, -1);
+        for (int k = 0; k < free; k++) freeIndex[freeC[k]] = k;
+
+        for (double[] row : result) Arrays.fill(row, 0);
+        for (int k = 0; k < free; k++) result[k + 1][freeC[k]] = 1;
+
+        // proceed from the last pivot to the first, as sol() does
+        for (int piNow = elimination.pivots - 1; piNow >= 0; piNow--) {
+            int pC = piC[piNow];
+            result[0][pC] = rref[piNow][n];
+            for (int iC = pC + 1; iC < n; iC++) {
+                double tempDec = rref[piNow][iC];
+                if (freeIndex[iC] >= 0) {
+                    result[freeIndex[iC] + 1][pC] = result[freeIndex[iC] + 1][pC] - tempDec;
+                } else {
+                    for (int k = 0; k <= free; k++) result[k][pC] = result[k][pC] - result[k][iC] * tempDec;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return number of free variables of the last matrix eliminated
+     */
+    public int freeCount() {
+        check();
+        return elimination == null ? 0 : elimination.frees;
+    }
+
+    /**
+     * @param k the index of the free variable, from 0 to {@link #freeCount()}
+     * @return the column of free variable k of the last matrix eliminated
+     */
+    public int freeVar(int k) {
+        check();
+        if (elimination == null || k < 0 || k >= elimination.frees) throw new IndexOutOfBoundsException("no free variable " + k);
+        return elimination.freeC[k];
+    }
+
+    // vectors
+    /**hand out a vector to write a result into, the same one at the same point after every reset
+     * @param dimension the dimension of the vector
+     * @return a vector of this workspace, with whatever entries it had
+     */
+    public VectorD vector(int dimension) {
+        check();
+        if (used < vectors.size() && vectors.get(used).dim() == dimension) return vectors.get(used++);
+        VectorD result = new VectorD(dimension);
+        if (used < vectors.size()) vectors.set(used, result);
+        else vectors.add(result);
+        used++;
+        return result;
+    }
+
+    /**hand out all the vectors again, from the first, for the next round of the same work
+     */
+    public void reset() {
+        check();
+        used = 0;
+    }
+
+    // eliminate a matrix in the arrays kept, made again only for another size
+    private void eliminate(double[][] matrix) {
+        check();
+        if (matrix == null) throw new NullPointerException("matrix cannot be null");
+        if (elimination == null || elimination.ro != matrix.length || elimination.co != matrix[0].length) {
+            elimination = new EliminationD(matrix.length, matrix[0].length);
+        }
+        elimination.reset(matrix);
+        elimination.run(null);
+    }
+
+    private void check() {
+        if (Thread.currentThread() != owner) throw new IllegalStateException("a workspace can only be used by the thread that created it");
+    }
+
+    // test client
+    public static void main(String[] args) {
+        WorkspaceD workspace = new WorkspaceD();
+        double[][] a = {{2, 3, 4, 1}, {-1, 5, -3, 2}, {6, -2, 8, 3}};
+        double[][] b = {{1, 6, 2, -5, -2, -4}, {0, 0, 2, -8, -1, 3}, {0, 0, 0, 0, 1, 7}};
+
+        System.out.println(Arrays.deepToString(workspace.sol(a)) + " " + Arrays.toString(new MatrixD(a).sol()));
+        System.out.println(Arrays.deepToString(workspace.sol(b)) + " " + Arrays.toString(new MatrixD(b).sol()));
+        System.out.println(workspace.freeCount() + " free, the first " + workspace.freeVar(0));
+
+        // the same work again allocates nothing
+        MatrixD m = new MatrixD(new double[][]{{2, 3}, {-1, 5}});
+        VectorD x = new VectorD(new double[]{1, 1}), sum = null;
+        for (int round = 0; round < 3; round++) {
+            workspace.reset();
+            VectorD product = m.time(x, workspace);
+            sum = product.add(x, workspace.vector(2));
+            sum.unit(sum);
+        }
+        System.out.println(sum);
+    }
+}
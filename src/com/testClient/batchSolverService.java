@@ -0,0 +1,185 @@
+package com.testClient;
+
+import com.matrixCaculator.MatrixBD;
+import com.vectorCalculation.VectorBD;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * solve many systems like {@link solveMatrixTemplate}, one per line, on all the cores
+ * <p>each request line is {@code id rows columns entry...}, with the entries row by row;
+ * blank lines and lines starting with {@code #} are skipped
+ * <p>each response line is tab-separated: the id, then either {@code rref=...}, {@code free=...} and {@code sol=...},
+ * or {@code error=...}; responses are written as soon as each system is solved, so they come in completion order
+ * <p>at most a fixed number of systems wait or run at once; reading more requests blocks until one finishes
+ */
+public class batchSolverService {
+
+    // the threads solving the systems
+    private final ExecutorService pool;
+
+    // free places for systems waiting or running
+    private final Semaphore slots;
+
+    /**
+     * @param threads number of threads solving systems at once
+     * @param capacity number of systems waiting or running at once, before reading more blocks
+     */
+    public batchSolverService(int threads, int capacity) {
+        if (threads <= 0 || capacity <= 0) throw new IllegalArgumentException("the number of threads and the capacity must be greater than 0");
+        pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "batch-solver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        slots = new Semaphore(capacity);
+    }
+
+    /**a service with one thread per core and 4 systems per thread waiting or running
+     */
+    public batchSolverService() {
+        this(Runtime.getRuntime().availableProcessors(), 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**read requests until the end of the input, and write every response before returning
+     * @param in the request lines
+     * @param out where the response lines go, one line written at a time
+     * @throws IOException if reading fails
+     * @throws InterruptedException if interrupted while waiting for a free place
+     */
+    public void serve(BufferedReader in, Writer out) throws IOException, InterruptedException {
+        // the reader plus one party per system in progress
+        Phaser inProgress = new Phaser(1);
+        String line;
+        while ((line = in.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            // backpressure: wait for a free place before reading on
+            slots.acquire();
+            inProgress.register();
+            String request = line;
+            pool.execute(() -> {
+                try {
+                    String response = solve(request);
+                    synchronized (out) {
+                        out.write(response);
+                        out.write('\n');
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    System.err.println("cannot write response: " + e.getMessage());
+                } finally {
+                    slots.release();
+                    inProgress.arriveAndDeregister();
+                }
+            });
+        }
+        inProgress.arriveAndAwaitAdvance();
+    }
+
+    /**accept connections on a local port, serving each one until it closes
+     * @param port the port on the loopback address
+     * @throws IOException if the port cannot be opened
+     */
+    public void listen(int port) throws IOException {
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            System.err.println("listening on " + server.getLocalSocketAddress());
+            while (!Thread.currentThread().isInterrupted()) {
+                Socket socket = server.accept();
+                Thread connection = new Thread(() -> {
+                    try (socket) {
+                        serve(new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8)),
+                                new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)));
+                    } catch (IOException e) {
+                        System.err.println("connection failed: " + e.getMessage());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }, "batch-connection");
+                connection.start();
+            }
+        }
+    }
+
+    /**stop the threads after the systems already accepted are solved
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void shutdown() throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**solve one request line
+     * @param request {@code id rows columns entry...}
+     * @return the response line, without the line break
+     */
+    public static String solve(String request) {
+        String[] token = request.trim().split("\\s+");
+        String id = token[0];
+        try {
+            if (token.length < 3) throw new IllegalArgumentException("expected: id rows columns entry...");
+            int rows = Integer.parseInt(token[1]), columns = Integer.parseInt(token[2]);
+            if (rows <= 0 || columns <= 0) throw new IllegalArgumentException("the number of rows and columns must be greater than 0");
+            if (token.length != 3 + (long) rows * columns) throw new IllegalArgumentException("expected " + rows * columns + " entries but got " + (token.length - 3));
+            String[][] in = new String[rows][columns];
+            for (int i = 0; i < rows; i++) System.arraycopy(token, 3 + i * columns, in[i], 0, columns);
+
+            MatrixBD prob = new MatrixBD(in);
+            StringBuilder result = new StringBuilder(id);
+            result.append("\trref=").append(prob.RREF());
+
+            result.append("\tfree=");
+            Integer[] free = prob.freeVar();
+            for (int i = 0; i < free.length; i++) result.append(i == 0 ? "" : ", ").append('x').append(free[i] + 1);
+
+            result.append("\tsol=");
+            VectorBD[] sol = prob.sol();
+            if (sol == null) result.append("none");
+            else {
+                result.append(sol[0]);
+                for (int i = 0; i < free.length; i++) result.append(" + x").append(free[i] + 1).append(" * ").append(sol[i + 1]);
+            }
+            return result.toString();
+        } catch (RuntimeException e) {
+            return id + "\terror=" + e;
+        }
+    }
+
+    /**run the service
+     * @param args nothing or {@code -} to read standard input, {@code tcp port} to listen on a local port,
+     *             or the files to read one after another; responses go to standard output except for tcp
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        batchSolverService service = new batchSolverService();
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        if (args.length == 0 || args.length == 1 && args[0].equals("-")) {
+            service.serve(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)), out);
+        } else if (args[0].equals("tcp")) {
+            service.listen(Integer.parseInt(args[1]));
+        } else {
+            for (String file : args) {
+                try (BufferedReader in = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+                    service.serve(in, out);
+                }
+            }
+        }
+        service.shutdown();
+    }
+}
@@ -0,0 +1,290 @@
+package com.testClient;
+
+import com.matrixCaculator.EliminationCacheBD;
+import com.matrixCaculator.MatrixBD;
+import com.matrixCaculator.MatrixD;
+import com.vectorCalculation.VectorBD;
+import com.vectorCalculation.VectorD;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * measure how RREF() and sol() of {@link MatrixD} and {@link MatrixBD} scale, on systems from {@link systemGenerator}
+ * <p>for each engine and kind of system, the size doubles from the smallest until the largest, a run over the time limit,
+ * a peak heap over half the maximum heap, or running out of memory
+ * <p>each record has the median time of the repetitions, then the bytes allocated, the peak heap,
+ * and the residual and error against the exact system of the last repetition; records go out as CSV or JSON lines
+ * labelled, so runs of different engines or releases can be compared
+ * <p>options, all {@code --name=value}: {@code engines}, {@code kinds} (comma-separated), {@code min}, {@code max},
+ * {@code digits}, {@code reps}, {@code limit-ms}, {@code seed}, {@code format} (csv or json), {@code out} (a file, standard output otherwise),
+ * {@code label}
+ */
+public class scalingBenchmark {
+
+    /**what is measured
+     */
+    public enum Engine {
+        D_RREF("MatrixD.RREF"), BD_RREF("MatrixBD.RREF"), D_SOL("MatrixD.sol"), BD_SOL("MatrixBD.sol");
+
+        // the name in the records
+        private final String title;
+
+        Engine(String title) {
+            this.title = title;
+        }
+
+        // whether it works on big decimals
+        boolean exact() {
+            return this == BD_RREF || this == BD_SOL;
+        }
+    }
+
+    // the columns of a record, in order
+    private static final String[] COLUMNS = {"label", "engine", "kind", "n", "digits", "free", "reps",
+            "time_ms", "allocated_bytes", "peak_heap_bytes", "residual", "error", "path", "status"};
+
+    // settings
+    private EnumSet<Engine> engines = EnumSet.allOf(Engine.class);
+    private EnumSet<systemGenerator.Kind> kinds = EnumSet.allOf(systemGenerator.Kind.class);
+    private int min = 8, max = Integer.MAX_VALUE, digits = 6, reps = 3;
+    private long limitMs = 10_000, seed = 1;
+    private boolean json = false;
+    private String label = "unlabeled";
+
+    // where the records go
+    private final Writer out;
+
+    private scalingBenchmark(Writer out) {
+        this.out = out;
+    }
+
+    // one repetition: the values of a record besides the time, with the time in nanoseconds
+    private static final class Run {
+        long nanos, allocated = -1, peakHeap = -1;
+        double residual = Double.NaN, error = Double.NaN;
+        String path = "", status = "ok";
+    }
+
+    /**run every engine on every kind of system
+     * @throws IOException if writing the records fails
+     */
+    public void run() throws IOException {
+        if (!json) line(String.join(",", COLUMNS));
+        for (Engine engine : engines) {
+            for (systemGenerator.Kind kind : kinds) {
+                // warm up on the smallest size, so the first record is not the JIT compiling
+                measure(engine, systemGenerator.generate(kind, min, digits, seed));
+                sweep(engine, kind);
+            }
+        }
+        out.flush();
+    }
+
+    // double the size until a limit
+    private void sweep(Engine engine, systemGenerator.Kind kind) throws IOException {
+        long maxHeap = Runtime.getRuntime().maxMemory();
+        for (long n = min; n <= max; n *= 2) {
+            long[] nanos = new long[reps];
+            Run last = null;
+            systemGenerator.Problem problem;
+            try {
+                problem = systemGenerator.generate(kind, (int) n, digits, seed);
+                for (int r = 0; r < reps; r++) {
+                    last = measure(engine, problem);
+                    nanos[r] = last.nanos;
+                }
+            } catch (OutOfMemoryError e) {
+                last = new Run();
+                last.status = "out of memory";
+                record(engine, kind, (int) n, 0, 0, last);
+                return;
+            }
+            Arrays.sort(nanos);
+            last.nanos = nanos[reps / 2];
+            record(engine, kind, (int) n, problem.free, reps, last);
+            if (last.nanos / 1_000_000 > limitMs || last.peakHeap > maxHeap / 2) return;
+        }
+    }
+
+    // run one engine once on a fresh matrix
+    private static Run measure(Engine engine, systemGenerator.Problem problem) {
+        Run result = new Run();
+        MatrixD d = engine.exact() ? null : problem.toMatrixD();
+        MatrixBD bd = engine.exact() ? problem.toMatrixBD() : null;
+
+        // the results of equal matrices are shared, which would leave nothing to measure
+        EliminationCacheBD.clear();
+        System.gc();
+        List<MemoryPoolMXBean> pools = heapPools();
+        for (MemoryPoolMXBean pool : pools) pool.resetPeakUsage();
+        long allocated = allocated();
+
+        long start = System.nanoTime();
+        Object answer;
+        switch (engine) {
+            case D_RREF: answer = d.RREF(); break;
+            case BD_RREF: answer = bd.RREF(); break;
+            case D_SOL: answer = d.sol(); break;
+            default: answer = bd.sol(); break;
+        }
+        result.nanos = System.nanoTime() - start;
+
+        if (allocated >= 0) result.allocated = allocated() - allocated;
+        result.peakHeap = 0;
+        for (MemoryPoolMXBean pool : pools) result.peakHeap += pool.getPeakUsage().getUsed();
+
+        // the solution, from the last column of the reduced matrix or the first vector of sol()
+        BigDecimal[] x = null;
+        switch (engine) {
+            case D_RREF: x = lastColumn(((MatrixD) answer).toArray(), problem); break;
+            case BD_RREF: x = lastColumn(((MatrixBD) answer).toArray(), problem); break;
+            case D_SOL:
+                result.path = d.solPath().toString();
+                if (answer != null) x = exact(((VectorD[]) answer)[0].toArray());
+                break;
+            default:
+                result.path = bd.solPath().toString();
+                if (answer != null) x = ((VectorBD[]) answer)[0].toArray();
+                break;
+        }
+        if (x == null) result.status = answer == null ? "no solution" : "free variables";
+        else {
+            result.residual = problem.residual(x);
+            if (problem.free == 0) result.error = problem.error(x);
+        }
+        return result;
+    }
+
+    // the last column of a reduced matrix is the solution when each unknown has its pivot on the diagonal
+    private static BigDecimal[] lastColumn(double[][] rref, systemGenerator.Problem problem) {
+        int n = problem.n;
+        double[] column = new double[n];
+        for (int i = 0; i < n; i++) {
+            if (rref[i][i] != 1) return null;
+            column[i] = rref[i][n];
+        }
+        return exact(column);
+    }
+
+    private static BigDecimal[] lastColumn(BigDecimal[][] rref, systemGenerator.Problem problem) {
+        int n = problem.n;
+        BigDecimal[] result = new BigDecimal[n];
+        for (int i = 0; i < n; i++) {
+            if (rref[i][i].compareTo(BigDecimal.ONE) != 0) return null;
+            result[i] = rref[i][n];
+        }
+        return result;
+    }
+
+    // the exact values of doubles
+    private static BigDecimal[] exact(double[] values) {
+        BigDecimal[] result = new BigDecimal[values.length];
+        for (int i = 0; i < values.length; i++) result[i] = Double.isFinite(values[i]) ? new BigDecimal(values[i]) : BigDecimal.valueOf(Double.MAX_VALUE);
+        return result;
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        List<MemoryPoolMXBean> result = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) result.add(pool);
+        }
+        return result;
+    }
+
+    // the bytes allocated so far by the live threads, -1 if the virtual machine does not count them
+    private static long allocated() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) return -1;
+        com.sun.management.ThreadMXBean counting = (com.sun.management.ThreadMXBean) threads;
+        if (!counting.isThreadAllocatedMemorySupported() || !counting.isThreadAllocatedMemoryEnabled()) return -1;
+        long result = 0;
+        for (long bytes : counting.getThreadAllocatedBytes(threads.getAllThreadIds())) if (bytes > 0) result += bytes;
+        return result;
+    }
+
+    private void record(Engine engine, systemGenerator.Kind kind, int n, int free, int reps, Run run) throws IOException {
+        // numbers are left unquoted in JSON, and a missing number is empty in CSV and null in JSON
+        Object[] values = {label, engine.title, kind.toString(), n, digits, free, reps,
+                Math.round(run.nanos / 1e3) / 1e3, run.allocated, run.peakHeap, run.residual, run.error, run.path, run.status};
+        StringBuilder result = new StringBuilder(json ? "{" : "");
+        for (int c = 0; c < COLUMNS.length; c++) {
+            boolean missing = values[c] instanceof Double && ((Double) values[c]).isNaN();
+            String value = String.valueOf(values[c]);
+            result.append(c == 0 ? "" : ",");
+            if (!json) result.append(missing ? "" : value.contains(",") ? "\"" + value.replace("\"", "\"\"") + "\"" : value);
+            else {
+                result.append('"').append(COLUMNS[c]).append("\":");
+                if (missing) result.append("null");
+                else if (values[c] instanceof Number) result.append(value);
+                else result.append('"').append(value.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+            }
+        }
+        if (json) result.append('}');
+        line(result.toString());
+    }
+
+    private void line(String text) throws IOException {
+        out.write(text);
+        out.write('\n');
+        out.flush();
+    }
+
+    /**run the benchmark
+     * @param args the options, {@code --name=value}
+     */
+    public static void main(String[] args) throws IOException {
+        String file = null;
+        List<String[]> options = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) throw new IllegalArgumentException("expected --name=value but got " + arg);
+            String[] option = arg.substring(2).split("=", 2);
+            if (option[0].equals("out")) file = option[1];
+            else options.add(option);
+        }
+        Writer out = file == null ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(Paths.get(file), StandardCharsets.UTF_8);
+        try (out) {
+            scalingBenchmark benchmark = new scalingBenchmark(out);
+            for (String[] option : options) {
+                String value = option[1];
+                switch (option[0]) {
+                    case "engines":
+                        benchmark.engines = EnumSet.noneOf(Engine.class);
+                        for (String name : value.split(",")) benchmark.engines.add(Engine.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+                        break;
+                    case "kinds":
+                        benchmark.kinds = EnumSet.noneOf(systemGenerator.Kind.class);
+                        for (String name : value.split(",")) benchmark.kinds.add(systemGenerator.Kind.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+                        break;
+                    case "min": benchmark.min = Integer.parseInt(value); break;
+                    case "max": benchmark.max = Integer.parseInt(value); break;
+                    case "digits": benchmark.digits = Integer.parseInt(value); break;
+                    case "reps": benchmark.reps = Integer.parseInt(value); break;
+                    case "limit-ms": benchmark.limitMs = Long.parseLong(value); break;
+                    case "seed": benchmark.seed = Long.parseLong(value); break;
+                    case "format": benchmark.json = value.equalsIgnoreCase("json"); break;
+                    case "label": benchmark.label = value; break;
+                    default: throw new IllegalArgumentException("unknown option --" + option[0]);
+                }
+            }
+            if (benchmark.min <= 0 || benchmark.reps <= 0) throw new IllegalArgumentException("min and reps must be greater than 0");
+            benchmark.run();
+        }
+    }
+}
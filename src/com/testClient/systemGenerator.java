@@ -0,0 +1,229 @@
+package com.testClient;
+
+import com.matrixCaculator.MatrixBD;
+import com.matrixCaculator.MatrixD;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.SplittableRandom;
+
+/**
+ * reproducible synthetic systems for benchmarks, each with an exact solution known in advance
+ * <p>a system is generated exactly as big decimals: the coefficients A, a solution x* of small integers,
+ * and the constants b = A x* computed exactly; the same seed always gives the same system
+ * <p>{@link MatrixD} gets the system rounded to doubles, so how far it ends from x* shows the conditioning
+ */
+public final class systemGenerator {
+
+    /**the kinds of systems
+     */
+    public enum Kind {
+        // every entry a random decimal with the given number of digits
+        DENSE,
+        // a few random decimals per row, plus a diagonal that outweighs them
+        SPARSE,
+        // random decimals within 2 diagonals of the main one, plus a diagonal that outweighs them
+        BANDED,
+        // integer coefficients of rank n - n / 10, so there are n / 10 free variables, at least 1
+        RANK_DEFICIENT,
+        // 1 / (i + j + 1) rounded to the given number of digits, whose conditioning grows exponentially with the size
+        HILBERT,
+        // random integers from -9 to 9
+        INTEGER
+    }
+
+    // nonzero entries per row of a sparse system, besides the diagonal
+    private static final int SPARSE_ROW = 4;
+
+    // bandwidth of a banded system
+    private static final int BAND = 2;
+
+    private systemGenerator() {
+    }
+
+    /**a generated system
+     */
+    public static final class Problem {
+        /** the kind of the system */
+        public final Kind kind;
+        /** number of unknowns, the rows and the coefficient columns */
+        public final int n;
+        /** number of free variables of the system */
+        public final int free;
+        // the augmented system, n rows and n + 1 columns
+        private final BigDecimal[][] exact;
+        // the solution the constants were made from
+        private final BigDecimal[] solution;
+
+        private Problem(Kind kind, int n, int free, BigDecimal[][] exact, BigDecimal[] solution) {
+            this.kind = kind;
+            this.n = n;
+            this.free = free;
+            this.exact = exact;
+            this.solution = solution;
+        }
+
+        /**
+         * @return the augmented system, exact, as it is stored
+         */
+        public BigDecimal[][] exact() {
+            return exact;
+        }
+
+        /**
+         * @return the solution the constants were made from, one of many if there are free variables
+         */
+        public BigDecimal[] solution() {
+            return solution;
+        }
+
+        /**
+         * @return a new matrix of the exact system
+         */
+        public MatrixBD toMatrixBD() {
+            return new MatrixBD(exact);
+        }
+
+        /**
+         * @return a new matrix of the system rounded to doubles
+         */
+        public MatrixD toMatrixD() {
+            double[][] result = new double[n][n + 1];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j <= n; j++) result[i][j] = exact[i][j].doubleValue();
+            }
+            return new MatrixD(result);
+        }
+
+        /**the largest |A x - b| over the rows, relative to the largest |b|, computed exactly
+         * @param x the unknowns to check
+         * @return the relative residual
+         */
+        public double residual(BigDecimal[] x) {
+            BigDecimal worst = BigDecimal.ZERO, scale = BigDecimal.ONE;
+            for (int i = 0; i < n; i++) {
+                BigDecimal sum = exact[i][n].negate();
+                for (int j = 0; j < n; j++) {
+                    if (exact[i][j].signum() != 0) sum = sum.add(exact[i][j].multiply(x[j]));
+                }
+                worst = worst.max(sum.abs());
+                scale = scale.max(exact[i][n].abs());
+            }
+            return worst.divide(scale, MathContext.DECIMAL64).doubleValue();
+        }
+
+        /**the largest |x - x*| over the unknowns, relative to the largest |x*|
+         * <p>only meaningful without free variables, where x* is the one solution
+         * @param x the unknowns to check
+         * @return the relative error
+         */
+        public double error(BigDecimal[] x) {
+            BigDecimal worst = BigDecimal.ZERO, scale = BigDecimal.ONE;
+            for (int j = 0; j < n; j++) {
+                worst = worst.max(x[j].subtract(solution[j]).abs());
+                scale = scale.max(solution[j].abs());
+            }
+            return worst.divide(scale, MathContext.DECIMAL64).doubleValue();
+        }
+    }
+
+    /**generate a system
+     * @param kind the kind of the system
+     * @param n number of unknowns, at least 1
+     * @param digits number of digits of the random decimals, from 1 to 18, not used by the integer kinds
+     * @param seed the seed, the same one always giving the same system
+     * @return the system
+     */
+    public static Problem generate(Kind kind, int n, int digits, long seed) {
+        if (n <= 0) throw new IllegalArgumentException("the number of unknowns must be greater than 0");
+        if (digits <= 0 || digits > 18) throw new IllegalArgumentException("the number of digits must be from 1 to 18");
+        SplittableRandom random = new SplittableRandom(seed ^ ((long) kind.ordinal() << 32 | n));
+        BigDecimal[][] a = new BigDecimal[n][n + 1];
+        int free = 0;
+        switch (kind) {
+            case DENSE:
+                for (int i = 0; i < n; i++) for (int j = 0; j < n; j++) a[i][j] = decimal(random, digits);
+                break;
+            case SPARSE:
+                fill(a, n);
+                for (int i = 0; i < n; i++) {
+                    for (int t = 0; t < Math.min(SPARSE_ROW, n - 1); t++) {
+                        int j = random.nextInt(n);
+                        if (j != i) a[i][j] = decimal(random, digits);
+                    }
+                }
+                dominate(a, n);
+                break;
+            case BANDED:
+                fill(a, n);
+                for (int i = 0; i < n; i++) {
+                    for (int j = Math.max(0, i - BAND); j <= Math.min(n - 1, i + BAND); j++) if (j != i) a[i][j] = decimal(random, digits);
+                }
+                dominate(a, n);
+                break;
+            case RANK_DEFICIENT:
+                // a product of n by r and r by n integer matrices has rank r
+                free = Math.max(1, n / 10);
+                int r = n - free;
+                long[][] left = new long[n][r], right = new long[r][n];
+                for (long[] row : left) for (int k = 0; k < r; k++) row[k] = random.nextInt(7) - 3;
+                for (long[] row : right) for (int j = 0; j < n; j++) row[j] = random.nextInt(7) - 3;
+                for (int i = 0; i < n; i++) {
+                    for (int j = 0; j < n; j++) {
+                        long sum = 0;
+                        for (int k = 0; k < r; k++) sum += left[i][k] * right[k][j];
+                        a[i][j] = BigDecimal.valueOf(sum);
+                    }
+                }
+                break;
+            case HILBERT:
+                MathContext mc = new MathContext(digits);
+                for (int i = 0; i < n; i++) for (int j = 0; j < n; j++) a[i][j] = BigDecimal.ONE.divide(BigDecimal.valueOf(i + j + 1), mc);
+                break;
+            case INTEGER:
+                for (int i = 0; i < n; i++) for (int j = 0; j < n; j++) a[i][j] = BigDecimal.valueOf(random.nextInt(19) - 9);
+                break;
+        }
+
+        // the solution, and the constants made from it exactly
+        BigDecimal[] x = new BigDecimal[n];
+        for (int j = 0; j < n; j++) x[j] = BigDecimal.valueOf(random.nextInt(19) - 9);
+        for (int i = 0; i < n; i++) {
+            BigDecimal sum = BigDecimal.ZERO;
+            for (int j = 0; j < n; j++) if (a[i][j].signum() != 0) sum = sum.add(a[i][j].multiply(x[j]));
+            a[i][n] = sum;
+        }
+        return new Problem(kind, n, free, a, x);
+    }
+
+    // a random decimal from -1 to 1 with the given number of digits, all after the point
+    private static BigDecimal decimal(SplittableRandom random, int digits) {
+        long bound = 1;
+        for (int d = 0; d < digits; d++) bound *= 10;
+        return BigDecimal.valueOf(random.nextLong(-bound + 1, bound), digits);
+    }
+
+    // fill the coefficients with 0s
+    private static void fill(BigDecimal[][] a, int n) {
+        for (int i = 0; i < n; i++) for (int j = 0; j < n; j++) a[i][j] = BigDecimal.ZERO;
+    }
+
+    // make each diagonal entry 1 more than the rest of its row, so the system is well-conditioned
+    private static void dominate(BigDecimal[][] a, int n) {
+        for (int i = 0; i < n; i++) {
+            BigDecimal sum = BigDecimal.ONE;
+            for (int j = 0; j < n; j++) if (j != i) sum = sum.add(a[i][j].abs());
+            a[i][i] = sum;
+        }
+    }
+
+    // test client
+    public static void main(String[] args) {
+        for (Kind kind : Kind.values()) {
+            Problem problem = generate(kind, 5, 3, 1);
+            System.out.println(kind + ", free " + problem.free + ": " + problem.toMatrixBD());
+            System.out.println(problem.residual(problem.solution()) + " " + problem.error(problem.solution()));
+        }
+        System.out.println(generate(Kind.DENSE, 3, 3, 7).toMatrixBD().equals(generate(Kind.DENSE, 3, 3, 7).toMatrixBD()));
+    }
+}
@@ -0,0 +1,338 @@
+package com.vectorCalculation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * this class provides a way to manipulate many Euclidean vectors of the same dimension at once using double
+ * <p>the vectors are stored by column: one array per component, component i of vector k at component(i)[k],
+ * so each operation is a loop over contiguous arrays, which the JIT can turn into SIMD instructions
+ * <p>the operations write into an output batch given by the caller, which may be this batch, so nothing is allocated per vector;
+ * large batches are split across cores
+ */
+public class VectorBatchD {
+    // below this many vectors, run an operation sequentially
+    private static final int PARALLEL_SIZE = 1 << 15;
+
+    // number of vectors a task handles without splitting
+    private static final int CHUNK = 1 << 13;
+
+    // dimension
+    private final int n;
+
+    // number of vectors
+    private final int size;
+
+    // container arrays, component i of vector k at c[i][k]
+    private final double[][] c;
+
+    // constructor
+    /**
+     * construct a batch of vectors of 0s
+     *
+     * @param dimension the dimension of each vector
+     * @param size      the number of vectors
+     */
+    public VectorBatchD(int dimension, int size) {
+        if (dimension <= 0) throw new IllegalArgumentException("the dimension of the vector must be greater than 0");
+        if (size < 0) throw new IllegalArgumentException("the number of vectors must not be negative");
+        n = dimension;
+        this.size = size;
+        c = new double[n][size];
+    }
+
+    /**
+     * construct a batch from vectors of the same dimension
+     *
+     * @param vectors the vectors, copied into the batch
+     */
+    public VectorBatchD(VectorD[] vectors) {
+        if (vectors == null) throw new NullPointerException("the array you put in is null");
+        if (vectors.length == 0) throw new IllegalArgumentException("there must be at least one vector");
+        n = vectors[0].dim();
+        size = vectors.length;
+        c = new double[n][size];
+        for (int k = 0; k < size; k++) set(k, vectors[k]);
+    }
+
+    // access
+    /**
+     * @return the number of dimension of each vector
+     */
+    public int dim() {
+        return n;
+    }
+
+    /**
+     * @return the number of vectors
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * give out one component of all the vectors as it is stored, to read or fill it without a call per vector
+     *
+     * @param i the component
+     * @return the array of that component, entry k for vector k
+     */
+    public double[] component(int i) {
+        return c[i];
+    }
+
+    /**
+     * @param k the index of the vector
+     * @return a copy of vector k
+     */
+    public VectorD get(int k) {
+        double[] result = new double[n];
+        for (int i = 0; i < n; i++) result[i] = c[i][k];
+        return new VectorD(result);
+    }
+
+    /**
+     * replace one vector
+     *
+     * @param k    the index of the vector
+     * @param that the new vector, of the same dimension
+     */
+    public void set(int k, VectorD that) {
+        if (that == null) throw new IllegalArgumentException("the vector set must not be null");
+        if (that.dim() != n) throw new IllegalArgumentException("the dimensions of the two vectors must be the same");
+        double[] ve = that.toArray();
+        for (int i = 0; i < n; i++) c[i][k] = ve[i];
+    }
+
+    // operations
+    // add
+    /**
+     * sum up this batch and that batch vector by vector
+     *
+     * @param that the batch to be added
+     * @param out  the batch to write the sums into, which may be this or that
+     */
+    public void add(VectorBatchD that, VectorBatchD out) {
+        check(that, n, "added");
+        check(out, n, "to write into");
+        split((from, to) -> {
+            for (int i = 0; i < n; i++) {
+                double[] a = c[i], b = that.c[i], r = out.c[i];
+                for (int k = from; k < to; k++) r[k] = a[k] + b[k];
+            }
+        });
+    }
+
+    // times scalar
+    /**
+     * multiply every vector by a scalar
+     *
+     * @param factor the scalar to be multiplied
+     * @param out    the batch to write the products into, which may be this
+     */
+    public void scale(double factor, VectorBatchD out) {
+        check(out, n, "to write into");
+        split((from, to) -> {
+            for (int i = 0; i < n; i++) {
+                double[] a = c[i], r = out.c[i];
+                for (int k = from; k < to; k++) r[k] = a[k] * factor;
+            }
+        });
+    }
+
+    // dot product
+    /**
+     * calculate the dot products of this batch and that batch vector by vector
+     *
+     * @param that the batch to be dotted
+     * @param out  the array to write the dot products into, entry k for vector k
+     */
+    public void dot(VectorBatchD that, double[] out) {
+        check(that, n, "dotted");
+        check(out);
+        split((from, to) -> {
+            double[] a = c[0], b = that.c[0];
+            for (int k = from; k < to; k++) out[k] = a[k] * b[k];
+            for (int i = 1; i < n; i++) {
+                double[] ai = c[i], bi = that.c[i];
+                for (int k = from; k < to; k++) out[k] += ai[k] * bi[k];
+            }
+        });
+    }
+
+    // magnitude
+    /**
+     * calculate the magnitude (or norm, or length) of every vector
+     *
+     * @param out the array to write the magnitudes into, entry k for vector k
+     */
+    public void norm(double[] out) {
+        check(out);
+        split((from, to) -> {
+            squares(from, to, out);
+            for (int k = from; k < to; k++) out[k] = Math.sqrt(out[k]);
+        });
+    }
+
+    // unit vector
+    /**
+     * calculate the corresponding unit vector of every vector
+     *
+     * @param out the batch to write the unit vectors into, which may be this
+     */
+    public void normalize(VectorBatchD out) {
+        check(out, n, "to write into");
+        split((from, to) -> {
+            // the reciprocals of the magnitudes, so each component is one multiplication
+            double[] inverse = new double[to - from];
+            for (int i = 0; i < n; i++) {
+                double[] a = c[i];
+                for (int k = from; k < to; k++) inverse[k - from] += a[k] * a[k];
+            }
+            for (int k = 0; k < inverse.length; k++) inverse[k] = 1 / Math.sqrt(inverse[k]);
+            for (int i = 0; i < n; i++) {
+                double[] a = c[i], r = out.c[i];
+                for (int k = from; k < to; k++) r[k] = a[k] * inverse[k - from];
+            }
+        });
+    }
+
+    // cross product
+    /**
+     * calculate the cross products of this batch and that batch vector by vector, both of dimension 3
+     *
+     * @param that the batch to cross with
+     * @param out  the batch to write the cross products into, which may be this or that
+     */
+    public void cros(VectorBatchD that, VectorBatchD out) {
+        if (n != 3) throw new IllegalArgumentException("both vectors must have a dimension of 3 to have a cross product");
+        check(that, 3, "to cross with");
+        check(out, 3, "to write into");
+        split((from, to) -> {
+            double[] ax = c[0], ay = c[1], az = c[2], bx = that.c[0], by = that.c[1], bz = that.c[2];
+            double[] rx = out.c[0], ry = out.c[1], rz = out.c[2];
+            for (int k = from; k < to; k++) {
+                // read before writing, as out may be this or that
+                double x = ay[k] * bz[k] - az[k] * by[k];
+                double y = az[k] * bx[k] - ax[k] * bz[k];
+                double z = ax[k] * by[k] - ay[k] * bx[k];
+                rx[k] = x;
+                ry[k] = y;
+                rz[k] = z;
+            }
+        });
+    }
+
+    // multiply by matrix
+    /**
+     * multiply a matrix by every vector, such as a 3 by 3 transform
+     *
+     * @param matrix the matrix as 2D array, with as many columns as the dimension of this batch
+     * @param out    the batch to write the products into, of dimension the rows of the matrix, which may be this
+     */
+    public void transform(double[][] matrix, VectorBatchD out) {
+        if (matrix == null) throw new IllegalArgumentException("the matrix must not be null");
+        if (matrix[0].length != n) throw new IllegalArgumentException("the number of columns of the matrix must equal to the number of dimensions of the vectors");
+        check(out, matrix.length, "to write into");
+        split((from, to) -> {
+            // into a chunk of its own first, as out may be this
+            double[][] result = new double[matrix.length][to - from];
+            for (int r = 0; r < matrix.length; r++) {
+                double[] row = result[r];
+                for (int i = 0; i < n; i++) {
+                    double m = matrix[r][i];
+                    if (m == 0) continue;
+                    double[] a = c[i];
+                    for (int k = from; k < to; k++) row[k - from] += m * a[k];
+                }
+            }
+            for (int r = 0; r < matrix.length; r++) System.arraycopy(result[r], 0, out.c[r], from, to - from);
+        });
+    }
+
+    // the squared magnitudes of the vectors from from to to
+    private void squares(int from, int to, double[] out) {
+        double[] a = c[0];
+        for (int k = from; k < to; k++) out[k] = a[k] * a[k];
+        for (int i = 1; i < n; i++) {
+            double[] ai = c[i];
+            for (int k = from; k < to; k++) out[k] += ai[k] * ai[k];
+        }
+    }
+
+    private void check(VectorBatchD that, int dimension, String role) {
+        if (that == null) throw new IllegalArgumentException("the batch " + role + " must not be null");
+        if (that.n != dimension) throw new IllegalArgumentException("the batch " + role + " must have a dimension of " + dimension);
+        if (that.size != size) throw new IllegalArgumentException("the two batches must have the same number of vectors");
+    }
+
+    private void check(double[] out) {
+        if (out == null) throw new IllegalArgumentException("the array to write into must not be null");
+        if (out.length < size) throw new IllegalArgumentException("the array to write into must have an entry for every vector");
+    }
+
+    // run an operation on the vectors from from to to
+    private interface Range {
+        void run(int from, int to);
+    }
+
+    // run an operation on all the vectors, in parallel chunks for a large batch
+    private void split(Range range) {
+        if (size < PARALLEL_SIZE) range.run(0, size);
+        else ForkJoinPool.commonPool().invoke(new Split(range, 0, size));
+    }
+
+    // vectors from from to to, split in halves until a chunk
+    private static final class Split extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Range range;
+        private final int from, to;
+
+        Split(Range range, int from, int to) {
+            this.range = range;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK) {
+                range.run(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Split(range, from, middle), new Split(range, middle, to));
+        }
+    }
+
+    // to string
+    public String toString() {
+        StringBuilder result = new StringBuilder("[");
+        for (int k = 0; k < size; k++) result.append(k == 0 ? "" : ", ").append(get(k));
+        result.append("]");
+        return result.toString();
+    }
+
+    // test client
+    public static void main(String[] args) {
+        VectorBatchD a = new VectorBatchD(new VectorD[]{new VectorD(new double[]{8, 4, 3}), new VectorD(new double[]{1, 0, 0})});
+        VectorBatchD b = new VectorBatchD(new VectorD[]{new VectorD(new double[]{2, 0, 1}), new VectorD(new double[]{0, 1, 0})});
+        VectorBatchD out = new VectorBatchD(3, 2);
+        double[] values = new double[2];
+
+        a.add(b, out);
+        System.out.println(out);
+        a.dot(b, values);
+        System.out.println(values[0] + ", " + values[1]);
+        a.norm(values);
+        System.out.println(values[0] + ", " + values[1]);
+        a.cros(b, out);
+        System.out.println(out);
+        a.normalize(out);
+        System.out.println(out);
+        a.transform(new double[][]{{0, -1, 0}, {1, 0, 0}, {0, 0, 1}}, a);
+        System.out.println(a);
+        a.scale(5, a);
+        System.out.println(a);
+    }
+}
@@ -50,6 +50,21 @@ public class VectorD {
         return new VectorD(result);
     }
 
+    /**
+     * sum up two vectors of the same dimension into a vector given, allocating nothing
+     *
+     * @param that the vector to be added
+     * @param out  the vector whose entries are replaced by the sum, which may be this or that
+     * @return out
+     */
+    public VectorD add(VectorD that, VectorD out) {
+        if (that == null) throw new IllegalArgumentException("the vector added must not be null");
+        if (this.n != that.n) throw new IllegalArgumentException("the dimensions of the two vectors must be the same");
+        check(out);
+        for (int i = 0; i < n; i++) out.ve[i] = this.ve[i] + that.ve[i];
+        return out;
+    }
+
     // minus
     /**
      * subtract this vector with that vector in the same dimension
@@ -65,6 +80,21 @@ public class VectorD {
         return new VectorD(result);
     }
 
+    /**
+     * subtract that vector from this vector into a vector given, allocating nothing
+     *
+     * @param that the vector to be subtracted
+     * @param out  the vector whose entries are replaced by the subtraction, which may be this or that
+     * @return out
+     */
+    public VectorD min(VectorD that, VectorD out) {
+        if (that == null) throw new IllegalArgumentException("the vector to subtract must not be null");
+        if (this.n != that.n) throw new IllegalArgumentException("the dimensions of the two vectors must be the same");
+        check(out);
+        for (int i = 0; i < n; i++) out.ve[i] = this.ve[i] - that.ve[i];
+        return out;
+    }
+
     // dot product
     /**
      * return the dot product of two vectors of the same dimension
@@ -93,6 +123,19 @@ public class VectorD {
         return new VectorD(result);
     }
 
+    /**
+     * multiply a vector by a scalar into a vector given, allocating nothing
+     *
+     * @param that the scalar to be multiplied
+     * @param out  the vector whose entries are replaced by the multiplication, which may be this
+     * @return out
+     */
+    public VectorD time(double that, VectorD out) {
+        check(out);
+        for (int i = 0; i < n; i++) out.ve[i] = this.ve[i] * that;
+        return out;
+    }
+
     /**
      * multiply a vector by a scalar
      *
@@ -145,6 +188,19 @@ public class VectorD {
         return new VectorD(result);
     }
 
+    /**
+     * calculate the corresponding unit vector of this vector into a vector given, allocating nothing
+     *
+     * @param out the vector whose entries are replaced by the unit vector, which may be this
+     * @return out
+     */
+    public VectorD unit(VectorD out) {
+        check(out);
+        double magnitude = this.mag();
+        for (int i = 0; i < n; i++) out.ve[i] = this.ve[i] / magnitude;
+        return out;
+    }
+
     // cross product
     /**
      * calculate the cross product of two vectors of dimension 3
@@ -159,6 +215,25 @@ public class VectorD {
         return new VectorD(result);
     }
 
+    /**
+     * calculate the cross product of two vectors of dimension 3 into a vector given, allocating nothing
+     *
+     * @param that the vector to cross with
+     * @param out  the vector whose entries are replaced by the cross product, which may be this or that
+     * @return out
+     */
+    public VectorD cros(VectorD that, VectorD out) {
+        if (this.n != 3 || that.n != 3)
+            throw new IllegalArgumentException("both vectors must have a dimension of 3 to have a cross product");
+        check(out);
+        // read before writing, as out may be this or that
+        double x = this.ve[1] * that.ve[2] - (this.ve[2] * that.ve[1]), y = this.ve[2] * that.ve[0] - (this.ve[0] * (that.ve[2])), z = this.ve[0] * that.ve[1] - (this.ve[1] * that.ve[0]);
+        out.ve[0] = x;
+        out.ve[1] = y;
+        out.ve[2] = z;
+        return out;
+    }
+
     // extend
     /**
      * create a vector with more dimensions by filling up the new dimensions with 0s
@@ -203,6 +278,11 @@ public class VectorD {
         return ve;
     }
 
+    private void check(VectorD out) {
+        if (out == null) throw new IllegalArgumentException("the vector to write into must not be null");
+        if (out.n != n) throw new IllegalArgumentException("the vector to write into must have the same dimension");
+    }
+
     // to string
     public String toString() {
         StringBuilder result = new StringBuilder("⟨" + this.ve[0]);